@@ -1,14 +1,20 @@
 package com.bartr.chat.application.utility;
 
 import com.bartr.chat.avro.MessageEvent;
+import com.bartr.chat.messaging.producer.CreditEventProducer;
 import com.bartr.chat.messaging.producer.MessageEventProducer;
+import com.bartr.common.kafka.avro.CreditAwarded;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.UUID;
+
 @Component
 @AllArgsConstructor
 public class EventProducerUtility {
     private MessageEventProducer messageEventProducer;
+    private CreditEventProducer creditEventProducer;
 
     public void sendMessageEvent(String senderId, String receiverId, String messageTimestamp, String messageContent) {
         MessageEvent event = new MessageEvent();
@@ -18,4 +24,14 @@ public class EventProducerUtility {
         event.setMessage(messageContent);
         messageEventProducer.sendMessage(event);
     }
+
+    public void sendCreditAwarded(String userId, int amount, String reason) {
+        CreditAwarded event = new CreditAwarded();
+        event.setEventId(UUID.randomUUID().toString());
+        event.setUserId(userId);
+        event.setAmount(amount);
+        event.setReason(reason);
+        event.setAwardedTimestamp(Instant.now().toString());
+        creditEventProducer.sendMessage(event);
+    }
 }
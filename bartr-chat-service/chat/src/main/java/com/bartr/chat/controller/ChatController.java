@@ -1,6 +1,5 @@
 package com.bartr.chat.controller;
 
-import com.bartr.chat.UserServiceClient;
 import com.bartr.common.feign.AuthTokenHolder;
 import com.bartr.chat.application.service.MessageService;
 import com.bartr.chat.application.service.MatchService;
@@ -19,7 +18,6 @@ import org.springframework.web.bind.annotation.ResponseBody;
 
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 @Controller
 @RequiredArgsConstructor
@@ -30,7 +28,6 @@ public class ChatController {
     private final MatchService matchService;
     private final SimpMessagingTemplate messagingTemplate;
     private final EventProducerUtility eventProducerUtility;
-    private final UserServiceClient userServiceClient;
 
     @MessageMapping("/private-message")
     public void sendPrivateMessage(@Payload Message message) {
@@ -97,10 +94,10 @@ public class ChatController {
             // Give 10 credits for starting first chat
             if (isFirstMessage) {
                 try {
-                    userServiceClient.addCredits(UUID.fromString(message.getSenderId()), 10);
-                    log.info("Added 10 credits to user {} for starting first chat with {}", message.getSenderId(), message.getReceiverId());
+                    eventProducerUtility.sendCreditAwarded(message.getSenderId(), 10, "FIRST_MESSAGE");
+                    log.info("Published 10 credits for user {} for starting first chat with {}", message.getSenderId(), message.getReceiverId());
                 } catch (Exception e) {
-                    log.warn("Failed to add credits for first chat: {}", e.getMessage());
+                    log.warn("Failed to publish credits for first chat: {}", e.getMessage());
                     // Don't fail the message if credits update fails
                 }
             }
@@ -10,9 +10,15 @@ import org.apache.kafka.common.serialization.Deserializer;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
 
 public class KafkaAvroDeserializer<T> implements Deserializer<T> {
+    // Per-topic schemas configured as custom.avro.topic.<topic>.schema
+    private static final String TOPIC_SCHEMA_PREFIX = "custom.avro.topic.";
+    private static final String TOPIC_SCHEMA_SUFFIX = ".schema";
+
+    private final Map<String, Schema> topicSchemas = new HashMap<>();
     private Schema schema;
     private Schema matchSchema;
     private Schema messageSchema;
@@ -40,6 +46,15 @@ public class KafkaAvroDeserializer<T> implements Deserializer<T> {
             this.messageSchema = new Schema.Parser().parse(messageSchemaString);
         }
         
+        for (Map.Entry<String, ?> entry : configs.entrySet()) {
+            String key = entry.getKey();
+            if (key.startsWith(TOPIC_SCHEMA_PREFIX) && key.endsWith(TOPIC_SCHEMA_SUFFIX)
+                    && key.length() > TOPIC_SCHEMA_PREFIX.length() + TOPIC_SCHEMA_SUFFIX.length()) {
+                String topic = key.substring(TOPIC_SCHEMA_PREFIX.length(), key.length() - TOPIC_SCHEMA_SUFFIX.length());
+                topicSchemas.put(topic, new Schema.Parser().parse((String) entry.getValue()));
+            }
+        }
+
         // Fallback to single schema if topic-specific schemas not available
         if (configs.containsKey("custom.avro.schema")) {
             String schemaString = (String) configs.get("custom.avro.schema");
@@ -47,8 +62,8 @@ public class KafkaAvroDeserializer<T> implements Deserializer<T> {
         }
         
         // If no schemas loaded, throw error
-        if (schema == null && matchSchema == null && messageSchema == null) {
-            throw new IllegalStateException("The schema bean is not initialized. Expected one of: custom.avro.schema, custom.avro.match.schema, custom.avro.message.schema");
+        if (schema == null && matchSchema == null && messageSchema == null && topicSchemas.isEmpty()) {
+            throw new IllegalStateException("The schema bean is not initialized. Expected one of: custom.avro.schema, custom.avro.match.schema, custom.avro.message.schema, custom.avro.topic.<topic>.schema");
         }
     }
 
@@ -61,7 +76,9 @@ public class KafkaAvroDeserializer<T> implements Deserializer<T> {
         try {
             // Determine which schema to use based on topic name
             Schema schemaToUse = this.schema;
-            if (topic != null) {
+            if (topic != null && topicSchemas.containsKey(topic)) {
+                schemaToUse = topicSchemas.get(topic);
+            } else if (topic != null) {
                 if (topic.contains("match") || "matched_topic".equals(topic)) {
                     schemaToUse = matchSchema != null ? matchSchema : schema;
                 } else if (topic.contains("message") || "message_topic".equals(topic)) {
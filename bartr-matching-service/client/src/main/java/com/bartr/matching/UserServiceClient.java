@@ -7,8 +7,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
 import java.util.UUID;
 
 @FeignClient(name = "user-service", url = "${feign.client.user-service.url}"
@@ -16,11 +18,16 @@ import java.util.UUID;
 public interface UserServiceClient {
 
     @GetMapping("/v1/user/profile/all")
-    Page<UserProfileDto> getAllUsers(Pageable pageable);
+    Page<UserProfileDto> getAllUsers(@RequestParam(name = "afterId", required = false) Long afterId,
+                                     @RequestParam(name = "untilId", required = false) Long untilId,
+                                     Pageable pageable);
 
     @GetMapping("/v1/user/profile")
     UserProfileDto getUserProfileByKeycloakId(@RequestParam(name = "keycloakId") UUID keycloakId);
 
+    @PostMapping("/v1/user/profile/batch")
+    List<UserProfileDto> getUserProfilesByKeycloakIds(@RequestBody List<UUID> keycloakIds);
+
     @PostMapping("/v1/user/profile/credits/add")
     UserProfileDto addCredits(@RequestParam(name = "keycloakId") UUID keycloakId, @RequestParam(name = "amount") int amount);
 }
@@ -44,4 +44,11 @@ public class UserDocument {
     @Field(type= FieldType.Keyword)
     private List<String> skillsWanted;
 
+    // Dictionary IDs of the normalized skill names, distinct and ascending
+    @Field(type= FieldType.Integer)
+    private int[] skillsOfferedIds;
+
+    @Field(type= FieldType.Integer)
+    private int[] skillsWantedIds;
+
 }
@@ -0,0 +1,36 @@
+package com.bartr.matching;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Users a given user has already swiped on or matched with. The feed query excludes them with a
+ * terms lookup on this document, so it is never searched directly.
+ */
+@Document(indexName = UserExclusionDocument.INDEX_NAME, createIndex = true)
+@SuperBuilder
+@NoArgsConstructor
+@Setter
+@Getter
+public class UserExclusionDocument {
+
+    public static final String INDEX_NAME = "user_exclusions_index";
+    public static final String EXCLUDED_USER_IDS = "excludedUserIds";
+
+    @Id
+    @Field(type = FieldType.Keyword)
+    private UUID keycloakId;
+
+    @Field(type = FieldType.Keyword, index = false)
+    private List<String> excludedUserIds;
+
+}
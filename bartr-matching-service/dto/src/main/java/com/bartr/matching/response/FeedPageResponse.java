@@ -0,0 +1,15 @@
+package com.bartr.matching.response;
+
+import com.bartr.matching.UserDocument;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class FeedPageResponse {
+    private List<UserDocument> profiles;
+    // Opaque continuation token; null once the feed is exhausted
+    private String nextCursor;
+}
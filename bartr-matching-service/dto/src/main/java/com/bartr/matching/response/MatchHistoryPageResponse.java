@@ -0,0 +1,14 @@
+package com.bartr.matching.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class MatchHistoryPageResponse {
+    private List<MatchHistoryResponse> matches;
+    // Opaque continuation token; null on the last page
+    private String nextCursor;
+}
@@ -9,4 +9,6 @@ import lombok.Data;
 public class SwipeResponse {
     private MatchDto matchDto;
     private boolean matched;
+    // Set on batch items that were not applied, e.g. past the daily swipe limit
+    private String error;
 }
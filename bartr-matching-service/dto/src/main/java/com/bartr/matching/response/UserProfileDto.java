@@ -10,6 +10,7 @@ import java.util.UUID;
 @Data
 @Builder
 public class UserProfileDto {
+    private Long id;
     private UUID keycloakId;
     private List<SkillsOfferedDto> skillsOffered;
     private List<SkillsWantedDto> skillsWanted;
@@ -0,0 +1,35 @@
+package com.bartr.matching.application.health;
+
+import com.bartr.matching.application.index.SkillIndex;
+import com.bartr.matching.application.scheduler.UserSyncScheduler;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the startup user sync as "userSync". It is informational and always UP: feeds are served from
+ * users_index and the database while the sync runs or retries, so the sync state never takes the instance
+ * out of service. It is not part of the readiness group; the details show how far the sync is.
+ */
+@Component
+@AllArgsConstructor
+public class UserSyncHealthIndicator implements HealthIndicator {
+
+    private UserSyncScheduler userSyncScheduler;
+    private SkillIndex skillIndex;
+
+    @Override
+    public Health health() {
+        UserSyncScheduler.InitialSyncState state = userSyncScheduler.getInitialSyncState();
+        int indexedUsers = skillIndex.size();
+        Health.Builder builder = Health.up()
+                .withDetail("initialSync", state)
+                .withDetail("syncRunning", userSyncScheduler.isRunning())
+                .withDetail("indexedUsers", indexedUsers);
+        if (userSyncScheduler.getLastCompletedAt() != null) {
+            builder.withDetail("lastCompletedAt", userSyncScheduler.getLastCompletedAt());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,132 @@
+package com.bartr.matching.application.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact set of the users a single user must not be shown again: everyone they already swiped on
+ * and everyone they are currently matched with. Each side is a sorted array of (msb, lsb) long pairs,
+ * so membership is a binary search and a UUID costs 16 bytes instead of a boxed object per entry.
+ */
+public final class ExclusionSet {
+
+    private final SortedUuidArray swiped;
+    private final SortedUuidArray matched;
+
+    public ExclusionSet(Collection<UUID> swipedUserIds, Collection<UUID> matchedUserIds) {
+        this.swiped = new SortedUuidArray(swipedUserIds);
+        this.matched = new SortedUuidArray(matchedUserIds);
+    }
+
+    public synchronized boolean contains(UUID userId) {
+        return userId != null && (swiped.contains(userId) || matched.contains(userId));
+    }
+
+    public synchronized void addSwiped(UUID userId) {
+        swiped.add(userId);
+    }
+
+    public synchronized void addMatched(UUID userId) {
+        matched.add(userId);
+    }
+
+    public synchronized void removeMatched(UUID userId) {
+        matched.remove(userId);
+    }
+
+    public synchronized int swipedCount() {
+        return swiped.size();
+    }
+
+    public synchronized int matchedCount() {
+        return matched.size();
+    }
+
+    /**
+     * Every excluded user, swiped first and then matched; a user present on both sides appears twice.
+     */
+    public synchronized List<UUID> userIds() {
+        List<UUID> ids = new ArrayList<>(swiped.size() + matched.size());
+        swiped.copyTo(ids);
+        matched.copyTo(ids);
+        return ids;
+    }
+
+    private static final class SortedUuidArray {
+        private long[] pairs;
+        private int size;
+
+        SortedUuidArray(Collection<UUID> ids) {
+            this.pairs = new long[Math.max(2, ids.size() * 2)];
+            // Appending in sorted order keeps the initial load linear
+            ids.stream()
+                    .sorted(Comparator.comparingLong(UUID::getMostSignificantBits)
+                            .thenComparingLong(UUID::getLeastSignificantBits))
+                    .forEach(this::add);
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean contains(UUID id) {
+            return indexOf(id.getMostSignificantBits(), id.getLeastSignificantBits()) >= 0;
+        }
+
+        void add(UUID id) {
+            long msb = id.getMostSignificantBits();
+            long lsb = id.getLeastSignificantBits();
+            int index = indexOf(msb, lsb);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -(index + 1);
+            if ((size + 1) * 2 > pairs.length) {
+                pairs = Arrays.copyOf(pairs, pairs.length * 2);
+            }
+            System.arraycopy(pairs, insertAt * 2, pairs, (insertAt + 1) * 2, (size - insertAt) * 2);
+            pairs[insertAt * 2] = msb;
+            pairs[insertAt * 2 + 1] = lsb;
+            size++;
+        }
+
+        void copyTo(List<UUID> target) {
+            for (int i = 0; i < size; i++) {
+                target.add(new UUID(pairs[i * 2], pairs[i * 2 + 1]));
+            }
+        }
+
+        void remove(UUID id) {
+            int index = indexOf(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(pairs, (index + 1) * 2, pairs, index * 2, (size - index - 1) * 2);
+            size--;
+        }
+
+        private int indexOf(long msb, long lsb) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = Long.compare(pairs[mid * 2], msb);
+                if (cmp == 0) {
+                    cmp = Long.compare(pairs[mid * 2 + 1], lsb);
+                }
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.bartr.matching.application.index;
+
+import com.bartr.matching.application.service.ExclusionIndexService;
+import com.bartr.matching.application.service.SwipeWriteBehindQueue;
+import com.bartr.matching.domain.repositories.MatchAdjacencyRepository;
+import com.bartr.matching.domain.repositories.SwipeHistoryRepository;
+import com.bartr.matching.utility.TransactionUtility;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Per-user {@link ExclusionSet}s for the feed. A user's set is loaded once with two targeted queries
+ * and then kept current by swipes, matches and unmatches, so the feed never scans match_history or
+ * swipe_history. Swipes and matches are mirrored into the Elasticsearch exclusion index as well, and a
+ * freshly loaded set re-seeds it so users whose history predates the index are covered too.
+ *
+ * <p>The store is per instance and only sees the swipes this instance handles, so sets are bounded by
+ * size with Caffeine's eviction and expired a fixed time after they were loaded; that TTL is how long a
+ * swipe or unmatch handled by another instance can go unseen here. Updates mutate the set in place
+ * rather than rewriting the entry, so an active user's set still expires on time. Left swipes still
+ * waiting in the {@link SwipeWriteBehindQueue} are merged into every set as it loads.
+ */
+@Slf4j
+@Component
+public class ExclusionSetStore {
+
+    private final Cache<UUID, ExclusionSet> sets;
+
+    private final SwipeHistoryRepository swipeHistoryRepository;
+    private final MatchAdjacencyRepository matchAdjacencyRepository;
+    private final TransactionUtility transactionUtility;
+    private final ExclusionIndexService exclusionIndexService;
+    private final SwipeWriteBehindQueue swipeWriteBehindQueue;
+
+    public ExclusionSetStore(SwipeHistoryRepository swipeHistoryRepository,
+                             MatchAdjacencyRepository matchAdjacencyRepository,
+                             TransactionUtility transactionUtility,
+                             ExclusionIndexService exclusionIndexService,
+                             SwipeWriteBehindQueue swipeWriteBehindQueue,
+                             @Value("${matching.exclusions.max-users:100000}") long maxUsers,
+                             @Value("${matching.exclusions.ttl:PT5M}") Duration ttl) {
+        this.swipeHistoryRepository = swipeHistoryRepository;
+        this.matchAdjacencyRepository = matchAdjacencyRepository;
+        this.transactionUtility = transactionUtility;
+        this.exclusionIndexService = exclusionIndexService;
+        this.swipeWriteBehindQueue = swipeWriteBehindQueue;
+        this.sets = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public ExclusionSet get(UUID userId) {
+        ExclusionSet set = sets.getIfPresent(userId);
+        if (set != null) {
+            return set;
+        }
+        boolean[] loaded = new boolean[1];
+        set = sets.get(userId, id -> {
+            loaded[0] = true;
+            return load(id);
+        });
+        if (loaded[0]) {
+            // Outside the loader so a slow Elasticsearch call never holds the cache entry
+            exclusionIndexService.addExclusions(userId, set.userIds());
+        }
+        return set;
+    }
+
+    public void recordSwipe(UUID userId, UUID swipedUserId) {
+        transactionUtility.afterCommit(() -> {
+            ifPresent(userId, set -> set.addSwiped(swipedUserId));
+            exclusionIndexService.addExclusion(userId, swipedUserId);
+        });
+    }
+
+    /**
+     * Adds a left swipe the write-behind queue has just written to the user's set, if loaded. It is
+     * already in the Elasticsearch index from when the swipe was made.
+     */
+    public void recordWrittenSwipe(UUID userId, UUID swipedUserId) {
+        ifPresent(userId, set -> set.addSwiped(swipedUserId));
+    }
+
+    public void recordMatch(UUID user1Id, UUID user2Id) {
+        transactionUtility.afterCommit(() -> {
+            ifPresent(user1Id, set -> set.addMatched(user2Id));
+            ifPresent(user2Id, set -> set.addMatched(user1Id));
+            exclusionIndexService.addExclusion(user1Id, user2Id);
+            exclusionIndexService.addExclusion(user2Id, user1Id);
+        });
+    }
+
+    /**
+     * Only the in-memory matched side is cleared: both users swiped on each other to match, so the
+     * Elasticsearch exclusion stays valid after an unmatch.
+     */
+    public void removeMatch(UUID user1Id, UUID user2Id) {
+        transactionUtility.afterCommit(() -> {
+            ifPresent(user1Id, set -> set.removeMatched(user2Id));
+            ifPresent(user2Id, set -> set.removeMatched(user1Id));
+        });
+    }
+
+    private ExclusionSet load(UUID userId) {
+        // Read before the table: a swipe written in between is then in one of the two
+        List<UUID> pendingSwipes = swipeWriteBehindQueue.pendingSwipedUserIds(userId);
+        ExclusionSet set = new ExclusionSet(
+                swipeHistoryRepository.findSwipedUserIdsByUserId(userId),
+                matchAdjacencyRepository.findPartnerIdsForUser(userId));
+        pendingSwipes.forEach(set::addSwiped);
+        log.debug("Loaded exclusion set for user {}: {} swiped, {} matched",
+                userId, set.swipedCount(), set.matchedCount());
+        return set;
+    }
+
+    // ExclusionSet synchronizes itself, and not rewriting the entry keeps its expiry from being pushed back.
+    // getIfPresent does not see a set that is still loading, and the load may have read the table before
+    // this update committed, so a miss goes through computeIfPresent, which waits for the load to finish.
+    // The entry it rewrites has only just been loaded, so its expiry barely moves.
+    private void ifPresent(UUID userId, Consumer<ExclusionSet> update) {
+        ExclusionSet set = sets.getIfPresent(userId);
+        if (set != null) {
+            update.accept(set);
+            return;
+        }
+        sets.asMap().computeIfPresent(userId, (id, loaded) -> {
+            update.accept(loaded);
+            return loaded;
+        });
+    }
+}
@@ -0,0 +1,98 @@
+package com.bartr.matching.application.index;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ranked top-match candidate IDs per user, so re-opening the app does not rerun the whole feed
+ * pipeline. Bounded with Caffeine's W-TinyLFU eviction and expired after a fixed TTL. A swipe pops the
+ * swiped candidate from the user's list rather than dropping the entry; an entry that runs dry is
+ * dropped so the next request refills it. A profile change drops the user's own entry, since their
+ * skills drive the ranking, and removes them from every other cached list.
+ *
+ * <p>Swipes made on other instances only reach this one through the {@link ExclusionSetStore} reload, so
+ * an entry never outlives {@code matching.exclusions.ttl}: a longer feed TTL is capped to it.
+ */
+@Slf4j
+@Component
+public class FeedCache {
+
+    private final Cache<UUID, CachedFeed> feeds;
+
+    public FeedCache(@Value("${matching.feed.cache.max-users:10000}") long maxUsers,
+                     @Value("${matching.feed.cache.ttl:PT5M}") Duration ttl,
+                     @Value("${matching.exclusions.ttl:PT5M}") Duration exclusionTtl) {
+        if (ttl.compareTo(exclusionTtl) > 0) {
+            log.warn("Feed cache TTL {} exceeds the exclusion set TTL, capping it to {}", ttl, exclusionTtl);
+            ttl = exclusionTtl;
+        }
+        this.feeds = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * The cached candidate IDs in rank order, or null when the user has no usable entry.
+     */
+    public List<UUID> get(UUID userId) {
+        CachedFeed feed = feeds.getIfPresent(userId);
+        if (feed == null) {
+            return null;
+        }
+        List<UUID> candidateIds = feed.candidateIds();
+        if (candidateIds == null) {
+            feeds.asMap().remove(userId, feed);
+        }
+        return candidateIds;
+    }
+
+    public void put(UUID userId, List<UUID> candidateIds) {
+        if (candidateIds.isEmpty()) {
+            return;
+        }
+        feeds.put(userId, new CachedFeed(candidateIds));
+    }
+
+    // Lists are trimmed in place so neither a swipe nor a profile change extends an entry's TTL
+    public void consume(UUID userId, UUID swipedUserId) {
+        CachedFeed feed = feeds.getIfPresent(userId);
+        if (feed != null && feed.remove(swipedUserId)) {
+            feeds.asMap().remove(userId, feed);
+        }
+    }
+
+    public void evictUser(UUID userId) {
+        feeds.invalidate(userId);
+        // A list this empties is dropped by the next get for its user
+        feeds.asMap().values().forEach(feed -> feed.remove(userId));
+    }
+
+    private static final class CachedFeed {
+        private final List<UUID> candidateIds;
+
+        CachedFeed(List<UUID> candidateIds) {
+            this.candidateIds = new ArrayList<>(candidateIds);
+        }
+
+        synchronized List<UUID> candidateIds() {
+            return candidateIds.isEmpty() ? null : List.copyOf(candidateIds);
+        }
+
+        /**
+         * Returns true once the list is empty.
+         */
+        synchronized boolean remove(UUID candidateId) {
+            candidateIds.remove(candidateId);
+            return candidateIds.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.bartr.matching.application.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Hierarchical navigable small world graph over {@link SkillVector}s, ranked by inner product. Nodes are
+ * addressed by the ordinal they were added with. The graph is built once by a single thread and is then
+ * only read, so searches need no locking; a changed user base means building a new graph.
+ *
+ * <p>Neighbours are linked by candidate-to-candidate similarity, while searches score nodes against
+ * the caller's query. Each layer keeps the {@code m} best links per node ({@code 2 * m} on layer 0).
+ */
+final class HnswGraph {
+
+    private static final Comparator<Scored> BEST_FIRST = Comparator.comparingDouble(Scored::score).reversed()
+            .thenComparingInt(Scored::node);
+    private static final Comparator<Scored> WORST_FIRST = BEST_FIRST.reversed();
+    private static final int FILTERED_VISIT_FACTOR = 32;
+
+    private final int m;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random;
+
+    private final List<SkillVector> vectors = new ArrayList<>();
+    // links.get(node)[level] holds the neighbour ordinals of node on that level
+    private final List<int[][]> links = new ArrayList<>();
+    private final List<int[]> linkCounts = new ArrayList<>();
+
+    private int entryPoint = -1;
+    private int topLevel = -1;
+    // Highest-level node holding each dimension, extra entry points for sparse queries
+    private int[] dimensionEntries = new int[0];
+
+    HnswGraph(int m, int efConstruction, long seed) {
+        this.m = Math.max(2, m);
+        this.efConstruction = Math.max(this.m, efConstruction);
+        this.levelMultiplier = 1 / Math.log(this.m);
+        this.random = new SplittableRandom(seed);
+    }
+
+    int size() {
+        return vectors.size();
+    }
+
+    /**
+     * Adds the vector as the next ordinal and returns it.
+     */
+    int add(SkillVector vector) {
+        int node = vectors.size();
+        int level = (int) Math.floor(-Math.log(1 - random.nextDouble()) * levelMultiplier);
+        vectors.add(vector);
+        int[][] nodeLinks = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            nodeLinks[l] = new int[maxLinks(l)];
+        }
+        links.add(nodeLinks);
+        linkCounts.add(new int[level + 1]);
+        registerDimensions(node, vector, level);
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            topLevel = level;
+            return node;
+        }
+
+        IntToDoubleFunction similarity = other -> vector.dot(vectors.get(other));
+        int current = entryPoint;
+        for (int l = topLevel; l > level; l--) {
+            current = greedyClosest(similarity, current, l);
+        }
+        for (int l = Math.min(level, topLevel); l >= 0; l--) {
+            List<Scored> nearest = searchLayer(similarity, List.of(current), efConstruction, l, null);
+            for (int neighbour : selectNeighbours(nearest)) {
+                link(node, neighbour, l);
+                link(neighbour, node, l);
+            }
+            current = nearest.get(0).node();
+        }
+        if (level > topLevel) {
+            entryPoint = node;
+            topLevel = level;
+        }
+        return node;
+    }
+
+    /**
+     * The best {@code k} eligible nodes for the query, best first, exploring {@code ef} candidates on
+     * layer 0. Ineligible nodes are still walked through, they are only kept out of the results.
+     */
+    List<Scored> search(SkillVector query, int k, int ef, IntPredicate eligible) {
+        if (entryPoint < 0 || k <= 0) {
+            return List.of();
+        }
+        IntToDoubleFunction similarity = node -> query.dot(vectors.get(node));
+        int current = entryPoint;
+        for (int l = topLevel; l > 0; l--) {
+            current = greedyClosest(similarity, current, l);
+        }
+        List<Integer> entries = new ArrayList<>();
+        entries.add(current);
+        for (int dimension : query.dimensions()) {
+            if (dimension < dimensionEntries.length && dimensionEntries[dimension] >= 0
+                    && !entries.contains(dimensionEntries[dimension])) {
+                entries.add(dimensionEntries[dimension]);
+            }
+        }
+        List<Scored> nearest = searchLayer(similarity, entries, Math.max(k, ef), 0, eligible);
+        return nearest.size() > k ? nearest.subList(0, k) : nearest;
+    }
+
+    /**
+     * Sparse vectors share no dimension with most of the graph, so a greedy descent from the single entry
+     * point can stall on a plateau of zero similarity. Searches also start from a node holding each of
+     * the query's dimensions, which puts the beam next to every overlapping region of the graph.
+     */
+    private void registerDimensions(int node, SkillVector vector, int level) {
+        for (int dimension : vector.dimensions()) {
+            if (dimension >= dimensionEntries.length) {
+                int previousLength = dimensionEntries.length;
+                dimensionEntries = Arrays.copyOf(dimensionEntries, Math.max(dimension + 1, previousLength * 2));
+                Arrays.fill(dimensionEntries, previousLength, dimensionEntries.length, -1);
+            }
+            int entry = dimensionEntries[dimension];
+            if (entry < 0 || links.get(entry).length - 1 < level) {
+                dimensionEntries[dimension] = node;
+            }
+        }
+    }
+
+    private int greedyClosest(IntToDoubleFunction similarity, int start, int level) {
+        int best = start;
+        double bestScore = similarity.applyAsDouble(start);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] neighbours = links.get(best)[level];
+            int count = linkCounts.get(best)[level];
+            for (int i = 0; i < count; i++) {
+                double score = similarity.applyAsDouble(neighbours[i]);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = neighbours[i];
+                    improved = true;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Best-first beam search on one layer, returning up to {@code ef} nodes best first. With an
+     * {@code eligible} filter the beam only fills with eligible nodes but keeps expanding through all,
+     * up to {@link #FILTERED_VISIT_FACTOR} times {@code ef} expanded nodes so a mostly excluded
+     * neighbourhood cannot turn the search into a full scan.
+     */
+    private List<Scored> searchLayer(IntToDoubleFunction similarity, List<Integer> entryPoints, int ef,
+                                     int level, IntPredicate eligible) {
+        BitSet visited = new BitSet(vectors.size());
+        PriorityQueue<Scored> frontier = new PriorityQueue<>(BEST_FIRST);
+        PriorityQueue<Scored> results = new PriorityQueue<>(WORST_FIRST);
+        for (int entry : entryPoints) {
+            visited.set(entry);
+            Scored scored = new Scored(entry, similarity.applyAsDouble(entry));
+            frontier.add(scored);
+            if (eligible == null || eligible.test(entry)) {
+                results.add(scored);
+            }
+        }
+        int maxVisits = eligible == null ? Integer.MAX_VALUE : ef * FILTERED_VISIT_FACTOR;
+        int visits = 0;
+        while (!frontier.isEmpty() && visits++ < maxVisits) {
+            Scored closest = frontier.poll();
+            if (results.size() >= ef && closest.score() < results.peek().score()) {
+                break;
+            }
+            int[] neighbours = links.get(closest.node())[level];
+            int count = linkCounts.get(closest.node())[level];
+            for (int i = 0; i < count; i++) {
+                int neighbour = neighbours[i];
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                double score = similarity.applyAsDouble(neighbour);
+                if (results.size() < ef || score > results.peek().score()) {
+                    Scored scored = new Scored(neighbour, score);
+                    frontier.add(scored);
+                    if (eligible == null || eligible.test(neighbour)) {
+                        results.add(scored);
+                        if (results.size() > ef) {
+                            results.poll();
+                        }
+                    }
+                }
+            }
+        }
+        Scored[] sorted = results.toArray(new Scored[0]);
+        Arrays.sort(sorted, BEST_FIRST);
+        return Arrays.asList(sorted);
+    }
+
+    /**
+     * Picks up to {@code m} of the nearest nodes, preferring ones that are closer to the new node than to
+     * any node already picked, so links spread across clusters instead of all landing in the nearest
+     * one. Remaining slots are filled with the closest of the skipped nodes.
+     */
+    private List<Integer> selectNeighbours(List<Scored> nearest) {
+        List<Integer> selected = new ArrayList<>(m);
+        List<Integer> skipped = new ArrayList<>();
+        for (Scored candidate : nearest) {
+            if (selected.size() == m) {
+                break;
+            }
+            SkillVector vector = vectors.get(candidate.node());
+            boolean diverse = true;
+            for (int picked : selected) {
+                if (vector.dot(vectors.get(picked)) > candidate.score()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate.node());
+            } else {
+                skipped.add(candidate.node());
+            }
+        }
+        for (int i = 0; i < skipped.size() && selected.size() < m; i++) {
+            selected.add(skipped.get(i));
+        }
+        return selected;
+    }
+
+    /**
+     * Adds {@code to} to the links of {@code from}; a full list drops its weakest link if {@code to} beats it.
+     */
+    private void link(int from, int to, int level) {
+        int[] neighbours = links.get(from)[level];
+        int[] counts = linkCounts.get(from);
+        if (counts[level] < neighbours.length) {
+            neighbours[counts[level]++] = to;
+            return;
+        }
+        SkillVector vector = vectors.get(from);
+        int weakest = -1;
+        double weakestScore = vector.dot(vectors.get(to));
+        for (int i = 0; i < neighbours.length; i++) {
+            double score = vector.dot(vectors.get(neighbours[i]));
+            if (score < weakestScore) {
+                weakestScore = score;
+                weakest = i;
+            }
+        }
+        if (weakest >= 0) {
+            neighbours[weakest] = to;
+        }
+    }
+
+    private int maxLinks(int level) {
+        return level == 0 ? 2 * m : m;
+    }
+
+    record Scored(int node, double score) {
+    }
+}
@@ -0,0 +1,110 @@
+package com.bartr.matching.application.index;
+
+import com.bartr.matching.SwipeAction;
+import com.bartr.matching.domain.repositories.SwipeHistoryRepository;
+import com.bartr.matching.utility.TransactionUtility;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user pending inbound likes: users who right-swiped a user that has not swiped on them yet, so a
+ * right swipe back completes a match at once. A user's set is loaded once from the
+ * (swipedUserId, action) index of swipe_history and then kept current by swipes, the same way
+ * {@link ExclusionSetStore} keeps exclusions. Only the newest {@code max-per-user} likes are kept.
+ *
+ * <p>Each user's likes are an immutable list, newest first, replaced on every change, so readers walk
+ * them in like order without locking.
+ */
+@Slf4j
+@Component
+public class InboundLikeStore {
+
+    private final ConcurrentHashMap<UUID, List<UUID>> likes = new ConcurrentHashMap<>();
+
+    private final SwipeHistoryRepository swipeHistoryRepository;
+    private final TransactionUtility transactionUtility;
+    private final int maxUsers;
+    private final int maxPerUser;
+
+    public InboundLikeStore(SwipeHistoryRepository swipeHistoryRepository,
+                            TransactionUtility transactionUtility,
+                            @Value("${matching.inbound-likes.max-users:100000}") int maxUsers,
+                            @Value("${matching.inbound-likes.max-per-user:200}") int maxPerUser) {
+        this.swipeHistoryRepository = swipeHistoryRepository;
+        this.transactionUtility = transactionUtility;
+        this.maxUsers = maxUsers;
+        this.maxPerUser = Math.max(1, maxPerUser);
+    }
+
+    /**
+     * The users waiting on {@code userId}'s swipe, newest like first. Matches and swipes are applied
+     * after commit, so callers still filter through the user's {@link ExclusionSet}.
+     */
+    public List<UUID> get(UUID userId) {
+        List<UUID> pending = likes.get(userId);
+        if (pending != null) {
+            return pending;
+        }
+        evictIfFull();
+        return likes.computeIfAbsent(userId, this::load);
+    }
+
+    /**
+     * A swipe by {@code userId} settles the like {@code swipedUserId} may have been waiting on, and a
+     * right swipe becomes a pending like of {@code swipedUserId} in turn.
+     */
+    public void recordSwipe(UUID userId, UUID swipedUserId, boolean rightSwipe) {
+        transactionUtility.afterCommit(() -> {
+            likes.computeIfPresent(userId, (id, pending) -> without(pending, swipedUserId));
+            if (rightSwipe) {
+                likes.computeIfPresent(swipedUserId, (id, pending) -> withNewest(pending, userId));
+            }
+        });
+    }
+
+    private List<UUID> load(UUID userId) {
+        // Newest first, see SwipeHistoryRepository#findPendingSwiperIds
+        List<UUID> pending = List.copyOf(swipeHistoryRepository.findPendingSwiperIds(
+                userId, SwipeAction.RIGHT.getAction(), PageRequest.of(0, maxPerUser)));
+        log.debug("Loaded {} pending inbound likes for user {}", pending.size(), userId);
+        return pending;
+    }
+
+    // The oldest like drops out once the list is full
+    private List<UUID> withNewest(List<UUID> pending, UUID likerId) {
+        List<UUID> updated = new ArrayList<>(Math.min(pending.size() + 1, maxPerUser));
+        updated.add(likerId);
+        for (UUID id : pending) {
+            if (updated.size() == maxPerUser) {
+                break;
+            }
+            if (!id.equals(likerId)) {
+                updated.add(id);
+            }
+        }
+        return List.copyOf(updated);
+    }
+
+    private static List<UUID> without(List<UUID> pending, UUID likerId) {
+        if (!pending.contains(likerId)) {
+            return pending;
+        }
+        return pending.stream().filter(id -> !id.equals(likerId)).toList();
+    }
+
+    private void evictIfFull() {
+        Iterator<UUID> keys = likes.keySet().iterator();
+        while (likes.size() >= maxUsers && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
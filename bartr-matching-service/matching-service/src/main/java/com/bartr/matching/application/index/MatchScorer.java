@@ -0,0 +1,165 @@
+package com.bartr.matching.application.index;
+
+import com.bartr.matching.UserDocument;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * Java-side ranking for the feed fallbacks. The current user's {@link SkillDictionary} IDs are turned
+ * into bitsets once per request, each candidate is scored by probing those bitsets without allocating, and only
+ * the best {@code k} survive in a {@link TopKSelector}. Large candidate lists are split across the
+ * common fork-join pool; every slice keeps global candidate indices, so the merged ranking matches the
+ * sequential one exactly.
+ *
+ * <p>Scores follow the feed's model: 10 per distinct skill the candidate offers that the user wants,
+ * 5 per distinct skill the candidate wants that the user offers.
+ */
+@Component
+public class MatchScorer {
+
+    public static final int OFFERED_SKILL_WEIGHT = 10;
+    public static final int WANTED_SKILL_WEIGHT = 5;
+
+    private static final int LEAF_SIZE = 4096;
+
+    private final int parallelThreshold;
+
+    public MatchScorer(@Value("${matching.scoring.parallel-threshold:20000}") int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Returns the {@code k} best eligible candidates, best first; equal scores keep their input order.
+     */
+    public List<UserDocument> topMatches(UserDocument user, List<UserDocument> candidates,
+                                         Predicate<UserDocument> eligible, int k) {
+        if (k <= 0 || candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<UserDocument> indexed = candidates instanceof RandomAccess ? candidates : new ArrayList<>(candidates);
+        UserSkills skills = UserSkills.of(user);
+
+        TopKSelector selected = indexed.size() >= parallelThreshold
+                ? ForkJoinPool.commonPool().invoke(new ScoringTask(skills, indexed, eligible, k, 0, indexed.size()))
+                : scoreRange(skills, indexed, eligible, k, 0, indexed.size());
+
+        int[] order = selected.drainSorted();
+        List<UserDocument> result = new ArrayList<>(order.length);
+        for (int index : order) {
+            result.add(indexed.get(index));
+        }
+        return result;
+    }
+
+    /**
+     * The feed score of a single candidate, for callers comparing another ranking against this one.
+     */
+    public int score(UserDocument user, UserDocument candidate) {
+        return UserSkills.of(user).score(candidate);
+    }
+
+    private static TopKSelector scoreRange(UserSkills skills, List<UserDocument> candidates,
+                                           Predicate<UserDocument> eligible, int k, int from, int to) {
+        TopKSelector selector = new TopKSelector(Math.min(k, to - from));
+        for (int i = from; i < to; i++) {
+            UserDocument candidate = candidates.get(i);
+            if (eligible.test(candidate)) {
+                selector.offer(i, skills.score(candidate));
+            }
+        }
+        return selector;
+    }
+
+    private static final class ScoringTask extends RecursiveTask<TopKSelector> {
+        private final UserSkills skills;
+        private final List<UserDocument> candidates;
+        private final Predicate<UserDocument> eligible;
+        private final int k;
+        private final int from;
+        private final int to;
+
+        ScoringTask(UserSkills skills, List<UserDocument> candidates, Predicate<UserDocument> eligible,
+                    int k, int from, int to) {
+            this.skills = skills;
+            this.candidates = candidates;
+            this.eligible = eligible;
+            this.k = k;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TopKSelector compute() {
+            if (to - from <= LEAF_SIZE) {
+                return scoreRange(skills, candidates, eligible, k, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            ScoringTask left = new ScoringTask(skills, candidates, eligible, k, from, middle);
+            left.fork();
+            TopKSelector right = new ScoringTask(skills, candidates, eligible, k, middle, to).compute();
+            TopKSelector merged = left.join();
+            merged.merge(right);
+            return merged;
+        }
+    }
+
+    /**
+     * The current user's skill IDs as one bitset for what they want and one for what they offer.
+     * Candidate ID arrays are already distinct, so a match is one bit probe per candidate skill.
+     */
+    private static final class UserSkills {
+        private final long[] wanted;
+        private final long[] offered;
+
+        private UserSkills(long[] wanted, long[] offered) {
+            this.wanted = wanted;
+            this.offered = offered;
+        }
+
+        static UserSkills of(UserDocument user) {
+            return new UserSkills(toBits(user.getSkillsWantedIds()), toBits(user.getSkillsOfferedIds()));
+        }
+
+        int score(UserDocument candidate) {
+            return OFFERED_SKILL_WEIGHT * countSet(candidate.getSkillsOfferedIds(), wanted)
+                    + WANTED_SKILL_WEIGHT * countSet(candidate.getSkillsWantedIds(), offered);
+        }
+
+        private static int countSet(int[] candidateIds, long[] userBits) {
+            if (candidateIds == null) {
+                return 0;
+            }
+            int count = 0;
+            for (int id : candidateIds) {
+                int word = id >>> 6;
+                if (word < userBits.length && (userBits[word] & (1L << id)) != 0) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private static long[] toBits(int[] ids) {
+            if (ids == null || ids.length == 0) {
+                return new long[0];
+            }
+            int max = 0;
+            for (int id : ids) {
+                max = Math.max(max, id);
+            }
+            long[] bits = new long[(max >>> 6) + 1];
+            for (int id : ids) {
+                bits[id >>> 6] |= 1L << id;
+            }
+            return bits;
+        }
+    }
+}
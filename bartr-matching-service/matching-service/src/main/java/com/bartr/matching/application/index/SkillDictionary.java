@@ -0,0 +1,204 @@
+package com.bartr.matching.application.index;
+
+import com.bartr.matching.UserDocument;
+import com.bartr.matching.domain.entity.SkillDictionaryEntry;
+import com.bartr.matching.domain.repositories.SkillDictionaryRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Maps free-form skill names to stable int IDs. Names are normalized (trimmed, whitespace collapsed,
+ * lower-cased, common aliases folded) before lookup, and every normalized name is registered once in
+ * the skill_dictionary table so all instances agree on its ID. IDs are cached for the life of the
+ * process. A name that cannot be registered (database down) fails {@link #idsOf} rather than being
+ * left out, so a document is never indexed with a partial ID array; its arrays stay null and the next
+ * {@link #ensureIds} retries.
+ */
+@Slf4j
+@Component
+public class SkillDictionary {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Map<String, String> ALIASES = Map.ofEntries(
+            Map.entry("js", "javascript"),
+            Map.entry("ts", "typescript"),
+            Map.entry("py", "python"),
+            Map.entry("golang", "go"),
+            Map.entry("cpp", "c++"),
+            Map.entry("c sharp", "c#"),
+            Map.entry("csharp", "c#"),
+            Map.entry("nodejs", "node.js"),
+            Map.entry("node", "node.js"),
+            Map.entry("reactjs", "react"),
+            Map.entry("react.js", "react"),
+            Map.entry("k8s", "kubernetes"),
+            Map.entry("postgres", "postgresql"),
+            Map.entry("ml", "machine learning"),
+            Map.entry("ui/ux", "ux design"));
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    // One shared instance per raw display name, so indexed users do not each hold their own copy
+    private final ConcurrentHashMap<String, String> displayNames = new ConcurrentHashMap<>();
+
+    private final SkillDictionaryRepository skillDictionaryRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public SkillDictionary(SkillDictionaryRepository skillDictionaryRepository,
+                           PlatformTransactionManager transactionManager) {
+        this.skillDictionaryRepository = skillDictionaryRepository;
+        // Registration may happen inside a read-only request transaction, so it always gets its own
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void load() {
+        try {
+            for (SkillDictionaryEntry entry : skillDictionaryRepository.findAll()) {
+                ids.put(entry.getName(), entry.getId());
+            }
+            log.info("Loaded {} skills into the skill dictionary", ids.size());
+        } catch (Exception e) {
+            log.warn("Failed to load skill dictionary, skills will be registered on demand: {}", e.getMessage());
+        }
+    }
+
+    public static String normalize(String skill) {
+        if (skill == null) {
+            return null;
+        }
+        String normalized = WHITESPACE.matcher(skill.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        return ALIASES.getOrDefault(normalized, normalized);
+    }
+
+    /**
+     * Returns the ID of the skill, registering it on first sight, or -1 for a blank or unregistrable name.
+     */
+    public int idOf(String skill) {
+        String name = normalize(skill);
+        if (name == null) {
+            return -1;
+        }
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = register(name);
+        }
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Distinct, ascending IDs for the given skill names.
+     *
+     * @throws IllegalStateException if a skill is new and cannot be registered
+     */
+    public int[] idsOf(List<String> skills) {
+        return idsOf(skills, true);
+    }
+
+    /**
+     * Like {@link #idsOf}, but leaves out skills that cannot be registered. For matching requests, where
+     * the other skills are still worth matching on; the result must never be indexed, or the skills left
+     * out would not be retried.
+     */
+    public int[] registeredIdsOf(List<String> skills) {
+        return idsOf(skills, false);
+    }
+
+    private int[] idsOf(List<String> skills, boolean strict) {
+        if (skills == null || skills.isEmpty()) {
+            return new int[0];
+        }
+        int[] result = new int[skills.size()];
+        int size = 0;
+        for (String skill : skills) {
+            if (normalize(skill) == null) {
+                continue;
+            }
+            int id = idOf(skill);
+            if (id < 0) {
+                if (strict) {
+                    throw new IllegalStateException("Skill '" + skill + "' could not be registered");
+                }
+                log.warn("Skill '{}' could not be registered, matching without it", skill);
+                continue;
+            }
+            result[size++] = id;
+        }
+        Arrays.sort(result, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || result[distinct - 1] != result[i]) {
+                result[distinct++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, distinct);
+    }
+
+    public String intern(String skill) {
+        return skill == null ? null : displayNames.computeIfAbsent(skill, s -> s);
+    }
+
+    /**
+     * Fills in the ID arrays of a document that was indexed before it carried them, or whose skills could
+     * not all be registered last time.
+     *
+     * @throws IllegalStateException if a skill is new and cannot be registered; the array stays null
+     */
+    public UserDocument ensureIds(UserDocument document) {
+        if (document.getSkillsOfferedIds() == null) {
+            document.setSkillsOfferedIds(idsOf(document.getSkillsOffered()));
+        }
+        if (document.getSkillsWantedIds() == null) {
+            document.setSkillsWantedIds(idsOf(document.getSkillsWanted()));
+        }
+        return document;
+    }
+
+    /**
+     * {@link #ensureIds} for a document that is only matched against, never indexed: skills that cannot be
+     * registered are left out of its ID arrays rather than failing the request.
+     */
+    public UserDocument ensureRegisteredIds(UserDocument document) {
+        if (document.getSkillsOfferedIds() == null) {
+            document.setSkillsOfferedIds(registeredIdsOf(document.getSkillsOffered()));
+        }
+        if (document.getSkillsWantedIds() == null) {
+            document.setSkillsWantedIds(registeredIdsOf(document.getSkillsWanted()));
+        }
+        return document;
+    }
+
+    private Integer register(String name) {
+        try {
+            Integer id = transactionTemplate.execute(status -> {
+                skillDictionaryRepository.insertIfAbsent(name);
+                return skillDictionaryRepository.findByName(name)
+                        .map(SkillDictionaryEntry::getId)
+                        .orElse(null);
+            });
+            if (id != null) {
+                ids.putIfAbsent(name, id);
+                log.debug("Registered skill '{}' with id {}", name, id);
+            }
+            return id;
+        } catch (Exception e) {
+            log.warn("Failed to register skill '{}', documents with it are not indexed: {}", name, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package com.bartr.matching.application.index;
+
+import com.bartr.matching.UserDocument;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the skills of every synced user.
+ * Postings are addressed by {@link SkillDictionary} IDs and each skill keeps one posting list (a bitset
+ * of user ordinals) for skillsOffered and one for skillsWanted, so the feed's OR-of-terms query can be
+ * answered without Elasticsearch or a full page-through of User Service.
+ */
+@Slf4j
+@Component
+public class SkillIndex {
+
+    private static final int SNAPSHOT_MAGIC = 0x534B4958; // "SKIX"
+    private static final int SNAPSHOT_VERSION = 2;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<BitSet> offeredPostings = new ArrayList<>();
+    private final List<BitSet> wantedPostings = new ArrayList<>();
+
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final List<UserDocument> documents = new ArrayList<>();
+    private final BitSet freeOrdinals = new BitSet();
+
+    private final SkillDictionary skillDictionary;
+    private final boolean snapshotEnabled;
+    private final Path snapshotPath;
+    // Write time of the snapshot this index was restored from, null when it was not restored
+    private volatile Instant restoredSnapshotAt;
+
+    public SkillIndex(SkillDictionary skillDictionary,
+                      @Value("${matching.index.snapshot-enabled:true}") boolean snapshotEnabled,
+                      @Value("${matching.index.snapshot-path:${java.io.tmpdir}/bartr/skill-index.snapshot}") String snapshotPath) {
+        this.skillDictionary = skillDictionary;
+        this.snapshotEnabled = snapshotEnabled;
+        this.snapshotPath = Paths.get(snapshotPath);
+    }
+
+    /**
+     * Loads the snapshot written on the last shutdown. Documents without ID arrays may register skills in
+     * the database, so this runs on the startup sync thread once the application is ready, never during
+     * bean construction; see {@code UserSyncScheduler}.
+     */
+    public void restore() {
+        if (!snapshotEnabled || !Files.exists(snapshotPath)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            Instant writtenAt = Files.getLastModifiedTime(snapshotPath).toInstant();
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                log.warn("Ignoring skill index snapshot with unknown format: {}", snapshotPath);
+                return;
+            }
+            int count = in.readInt();
+            List<UserDocument> restored = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                restored.add(readDocument(in));
+            }
+            indexAll(restored);
+            restoredSnapshotAt = writtenAt;
+            log.info("Restored {} users into skill index from snapshot {}", count, snapshotPath);
+        } catch (Exception e) {
+            log.warn("Failed to restore skill index snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    /**
+     * When the snapshot this index was restored from was written, or null when nothing was restored.
+     */
+    public Instant getRestoredSnapshotAt() {
+        return restoredSnapshotAt;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+
+    /**
+     * Writes all indexed users to the snapshot file so that a restart can serve candidates before the next sync.
+     */
+    public void snapshot() {
+        if (!snapshotEnabled) {
+            return;
+        }
+        List<UserDocument> live;
+        lock.readLock().lock();
+        try {
+            live = documents.stream().filter(Objects::nonNull).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+        try {
+            Files.createDirectories(snapshotPath.toAbsolutePath().getParent());
+            Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(live.size());
+                for (UserDocument document : live) {
+                    writeDocument(out, document);
+                }
+            }
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote skill index snapshot with {} users to {}", live.size(), snapshotPath);
+        } catch (Exception e) {
+            log.warn("Failed to write skill index snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    public void index(UserDocument document) {
+        if (document == null || document.getKeycloakId() == null) {
+            return;
+        }
+        // Resolved before taking the lock, registering a new skill may hit the database
+        skillDictionary.ensureIds(document);
+        lock.writeLock().lock();
+        try {
+            indexLocked(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void indexAll(Collection<UserDocument> documentsToIndex) {
+        for (UserDocument document : documentsToIndex) {
+            if (document != null) {
+                skillDictionary.ensureIds(document);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            for (UserDocument document : documentsToIndex) {
+                if (document != null && document.getKeycloakId() != null) {
+                    indexLocked(document);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID keycloakId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(keycloakId);
+            if (ordinal != null) {
+                clearPostings(ordinal, documents.get(ordinal));
+                documents.set(ordinal, null);
+                freeOrdinals.set(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<UserDocument> get(UUID keycloakId) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinals.get(keycloakId);
+            return ordinal == null ? Optional.empty() : Optional.ofNullable(documents.get(ordinal));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Every indexed document, in ordinal order, as a copy the caller may use without holding the lock.
+     */
+    public List<UserDocument> documents() {
+        lock.readLock().lock();
+        try {
+            List<UserDocument> snapshot = new ArrayList<>(ordinals.size());
+            for (UserDocument document : documents) {
+                if (document != null) {
+                    snapshot.add(document);
+                }
+            }
+            return snapshot;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Same semantics as the Elasticsearch feed query: users offering any skill in {@code wantedIds}
+     * OR wanting any skill in {@code offeredIds}. Results are returned in ordinal order.
+     */
+    public List<UserDocument> search(int[] wantedIds, int[] offeredIds) {
+        lock.readLock().lock();
+        try {
+            BitSet hits = new BitSet(documents.size());
+            orPostings(hits, offeredPostings, wantedIds);
+            orPostings(hits, wantedPostings, offeredIds);
+
+            List<UserDocument> results = new ArrayList<>(hits.cardinality());
+            for (int ordinal = hits.nextSetBit(0); ordinal >= 0; ordinal = hits.nextSetBit(ordinal + 1)) {
+                results.add(documents.get(ordinal));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Users wanting any skill in {@code skillIds}, read straight off the wanted postings. This is the
+     * reverse of {@link #search}: who should hear about a user who now offers these skills.
+     */
+    public List<UserDocument> usersWanting(int[] skillIds) {
+        lock.readLock().lock();
+        try {
+            BitSet hits = new BitSet(documents.size());
+            orPostings(hits, wantedPostings, skillIds);
+
+            List<UserDocument> results = new ArrayList<>(hits.cardinality());
+            for (int ordinal = hits.nextSetBit(0); ordinal >= 0; ordinal = hits.nextSetBit(ordinal + 1)) {
+                results.add(documents.get(ordinal));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void orPostings(BitSet hits, List<BitSet> postings, int[] skillIds) {
+        if (skillIds == null) {
+            return;
+        }
+        for (int skillId : skillIds) {
+            if (skillId < postings.size()) {
+                hits.or(postings.get(skillId));
+            }
+        }
+    }
+
+    private void indexLocked(UserDocument document) {
+        Integer ordinal = ordinals.get(document.getKeycloakId());
+        if (ordinal != null) {
+            clearPostings(ordinal, documents.get(ordinal));
+            documents.set(ordinal, document);
+        } else {
+            ordinal = allocateOrdinal(document);
+            ordinals.put(document.getKeycloakId(), ordinal);
+        }
+        setPostings(ordinal, offeredPostings, document.getSkillsOfferedIds());
+        setPostings(ordinal, wantedPostings, document.getSkillsWantedIds());
+    }
+
+    private int allocateOrdinal(UserDocument document) {
+        int free = freeOrdinals.nextSetBit(0);
+        if (free >= 0) {
+            freeOrdinals.clear(free);
+            documents.set(free, document);
+            return free;
+        }
+        documents.add(document);
+        return documents.size() - 1;
+    }
+
+    private void setPostings(int ordinal, List<BitSet> postings, int[] skillIds) {
+        if (skillIds == null) {
+            return;
+        }
+        for (int skillId : skillIds) {
+            while (postings.size() <= skillId) {
+                postings.add(new BitSet());
+            }
+            postings.get(skillId).set(ordinal);
+        }
+    }
+
+    private void clearPostings(int ordinal, UserDocument previous) {
+        if (previous == null) {
+            return;
+        }
+        clearPostings(ordinal, offeredPostings, previous.getSkillsOfferedIds());
+        clearPostings(ordinal, wantedPostings, previous.getSkillsWantedIds());
+    }
+
+    private void clearPostings(int ordinal, List<BitSet> postings, int[] skillIds) {
+        if (skillIds == null) {
+            return;
+        }
+        for (int skillId : skillIds) {
+            if (skillId < postings.size()) {
+                postings.get(skillId).clear(ordinal);
+            }
+        }
+    }
+
+    private static void writeDocument(DataOutputStream out, UserDocument document) throws IOException {
+        out.writeLong(document.getKeycloakId().getMostSignificantBits());
+        out.writeLong(document.getKeycloakId().getLeastSignificantBits());
+        writeString(out, document.getFirstName());
+        writeString(out, document.getLastName());
+        writeString(out, document.getGender());
+        writeString(out, document.getUserName());
+        writeString(out, document.getEmail());
+        writeStrings(out, document.getSkillsOffered());
+        writeStrings(out, document.getSkillsWanted());
+        writeInts(out, document.getSkillsOfferedIds());
+        writeInts(out, document.getSkillsWantedIds());
+    }
+
+    private static UserDocument readDocument(DataInputStream in) throws IOException {
+        return UserDocument.builder()
+                .keycloakId(new UUID(in.readLong(), in.readLong()))
+                .firstName(readString(in))
+                .lastName(readString(in))
+                .gender(readString(in))
+                .userName(readString(in))
+                .email(readString(in))
+                .skillsOffered(readStrings(in))
+                .skillsWanted(readStrings(in))
+                .skillsOfferedIds(readInts(in))
+                .skillsWantedIds(readInts(in))
+                .build();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        List<String> safe = values != null ? values : Collections.emptyList();
+        out.writeInt(safe.size());
+        for (String value : safe) {
+            writeString(out, value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        int[] safe = values != null ? values : new int[0];
+        out.writeInt(safe.length);
+        for (int value : safe) {
+            out.writeInt(value);
+        }
+    }
+
+    private static int[] readInts(DataInputStream in) throws IOException {
+        int[] values = new int[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+}
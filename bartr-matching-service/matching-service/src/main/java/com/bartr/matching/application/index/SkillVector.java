@@ -0,0 +1,91 @@
+package com.bartr.matching.application.index;
+
+/**
+ * Sparse skill vector for the ANN index. Every {@link SkillDictionary} ID owns two dimensions: {@code 2 * id}
+ * for "offers this skill" and {@code 2 * id + 1} for "wants this skill". Candidates are embedded as they
+ * are, and a query is embedded with its sides swapped, so the inner product of a query and a candidate
+ * is the reciprocal similarity of the two users. Dimensions are sorted, so a dot product is one merge.
+ */
+final class SkillVector {
+
+    private final int[] dimensions;
+    private final float[] weights;
+
+    SkillVector(int[] dimensions, float[] weights) {
+        this.dimensions = dimensions;
+        this.weights = weights;
+    }
+
+    int[] dimensions() {
+        return dimensions;
+    }
+
+    boolean isEmpty() {
+        return dimensions.length == 0;
+    }
+
+    double dot(SkillVector other) {
+        int[] a = dimensions;
+        int[] b = other.dimensions;
+        double sum = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                sum += weights[i++] * other.weights[j++];
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Builds a vector from two sides of sorted, distinct skill IDs, each skill weighted by its IDF and
+     * each side scaled by its side weight. With {@code normalize} each side is L2-normalized first.
+     * Skills registered after the IDF table was built have no document frequency yet and get
+     * {@code unseenIdf}.
+     *
+     * @param evenIds skill IDs placed on the even ("offers") dimensions
+     * @param oddIds  skill IDs placed on the odd ("wants") dimensions
+     */
+    static SkillVector of(int[] evenIds, double evenWeight, int[] oddIds, double oddWeight,
+                          float[] idf, float unseenIdf, boolean normalize) {
+        int[] even = evenIds != null ? evenIds : new int[0];
+        int[] odd = oddIds != null ? oddIds : new int[0];
+        int[] dimensions = new int[even.length + odd.length];
+        float[] weights = new float[dimensions.length];
+        double evenNorm = normalize ? norm(even, idf, unseenIdf) : 1;
+        double oddNorm = normalize ? norm(odd, idf, unseenIdf) : 1;
+
+        // Merge the two sides so dimensions come out sorted: 2 * a < 2 * b + 1 exactly when a <= b
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < even.length || j < odd.length) {
+            if (j >= odd.length || (i < even.length && even[i] <= odd[j])) {
+                dimensions[size] = 2 * even[i];
+                weights[size++] = (float) (evenWeight * weight(idf, unseenIdf, even[i++]) / evenNorm);
+            } else {
+                dimensions[size] = 2 * odd[j] + 1;
+                weights[size++] = (float) (oddWeight * weight(idf, unseenIdf, odd[j++]) / oddNorm);
+            }
+        }
+        return new SkillVector(dimensions, weights);
+    }
+
+    private static double norm(int[] ids, float[] idf, float unseenIdf) {
+        double sum = 0;
+        for (int id : ids) {
+            double weight = weight(idf, unseenIdf, id);
+            sum += weight * weight;
+        }
+        return sum == 0 ? 1 : Math.sqrt(sum);
+    }
+
+    private static double weight(float[] idf, float unseenIdf, int id) {
+        return id < idf.length && idf[id] > 0 ? idf[id] : unseenIdf;
+    }
+}
@@ -0,0 +1,232 @@
+package com.bartr.matching.application.index;
+
+import com.bartr.matching.UserDocument;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Approximate matching for {@code matching.mode=ann}. Every user in the {@link SkillIndex} is embedded
+ * as a TF-IDF {@link SkillVector} over the skill dictionary and added to an in-process {@link HnswGraph},
+ * so a feed query is a graph search whose cost does not grow with the posting lists of popular skills.
+ * The similarity mirrors {@link MatchScorer}: a skill the candidate offers that the user wants weighs
+ * twice a skill the candidate wants that the user offers, with rare skills counting for more.
+ *
+ * <p>The graph is rebuilt from the skill index on a schedule and swapped in whole, so searches never
+ * lock. Profiles changed since the last build are served with their current document, and users
+ * removed since then are dropped. With {@code matching.ann.evaluation-enabled} a sample of users is
+ * ranked by both paths after each build and recall@{@value #EVALUATION_K} and the latency of each are
+ * published as metrics; offline, {@code SkillVectorIndexTest} and {@code SkillVectorIndexBenchmark}
+ * measure the same.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "matching.mode", havingValue = "ann")
+public class SkillVectorIndex {
+
+    static final int EVALUATION_K = 20;
+
+    private static final double OFFERED_SIDE_WEIGHT = (double) MatchScorer.OFFERED_SKILL_WEIGHT
+            / (MatchScorer.OFFERED_SKILL_WEIGHT + MatchScorer.WANTED_SKILL_WEIGHT);
+    private static final double WANTED_SIDE_WEIGHT = 1 - OFFERED_SIDE_WEIGHT;
+    // Fixed so two builds over the same users produce the same graph
+    private static final long GRAPH_SEED = 0x534B4958L;
+
+    private final SkillIndex skillIndex;
+    private final MatchScorer matchScorer;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+    private final int evaluationSample;
+    private final Timer exactTimer;
+    private final Timer approximateTimer;
+
+    private volatile Snapshot snapshot;
+    private volatile double recall = Double.NaN;
+
+    public SkillVectorIndex(SkillIndex skillIndex,
+                            MatchScorer matchScorer,
+                            MeterRegistry meterRegistry,
+                            @Value("${matching.ann.m:16}") int m,
+                            @Value("${matching.ann.ef-construction:100}") int efConstruction,
+                            @Value("${matching.ann.ef-search:64}") int efSearch,
+                            @Value("${matching.ann.evaluation-sample:100}") int evaluationSample) {
+        this.skillIndex = skillIndex;
+        this.matchScorer = matchScorer;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.efSearch = Math.max(EVALUATION_K, efSearch);
+        this.evaluationSample = Math.max(0, evaluationSample);
+
+        this.exactTimer = Timer.builder("matching.ann.evaluation.duration")
+                .description("Top-match latency of each path over the evaluation sample")
+                .tag("path", "exact")
+                .register(meterRegistry);
+        this.approximateTimer = Timer.builder("matching.ann.evaluation.duration")
+                .description("Top-match latency of each path over the evaluation sample")
+                .tag("path", "ann")
+                .register(meterRegistry);
+        Gauge.builder("matching.ann.recall", () -> recall)
+                .description("Recall@" + EVALUATION_K + " of the ANN path against the exact path, last evaluation")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * Builds a new graph from the current skill index and swaps it in. An empty skill index leaves the
+     * previous graph, if any, in place.
+     */
+    public void rebuild() {
+        List<UserDocument> documents = skillIndex.documents();
+        if (documents.isEmpty()) {
+            log.info("Skill index is empty, skipping ANN index build");
+            return;
+        }
+        long started = System.nanoTime();
+
+        int[] documentFrequency = new int[maxSkillId(documents) + 1];
+        for (UserDocument document : documents) {
+            count(documentFrequency, document.getSkillsOfferedIds());
+            count(documentFrequency, document.getSkillsWantedIds());
+        }
+        float[] idf = new float[documentFrequency.length];
+        for (int id = 0; id < idf.length; id++) {
+            idf[id] = (float) (Math.log((documents.size() + 1.0) / (documentFrequency[id] + 1)) + 1);
+        }
+        float unseenIdf = (float) (Math.log(documents.size() + 1.0) + 1);
+
+        HnswGraph graph = new HnswGraph(m, efConstruction, GRAPH_SEED);
+        List<UserDocument> nodes = new ArrayList<>(documents.size());
+        for (UserDocument document : documents) {
+            SkillVector vector = SkillVector.of(document.getSkillsOfferedIds(), OFFERED_SIDE_WEIGHT,
+                    document.getSkillsWantedIds(), WANTED_SIDE_WEIGHT, idf, unseenIdf, false);
+            if (!vector.isEmpty()) {
+                graph.add(vector);
+                nodes.add(document);
+            }
+        }
+        snapshot = new Snapshot(graph, nodes, idf, unseenIdf);
+        log.info("Built ANN index over {} users in {} ms",
+                nodes.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    /**
+     * Same contract as {@link MatchScorer#topMatches}: up to {@code k} eligible candidates, best first.
+     * Returns an empty list until the first build has completed.
+     */
+    public List<UserDocument> topMatches(UserDocument user, Predicate<UserDocument> eligible, int k) {
+        Snapshot current = snapshot;
+        if (current == null || k <= 0) {
+            return List.of();
+        }
+        // The user's wants go on the "offers" dimensions and vice versa, see SkillVector
+        SkillVector query = SkillVector.of(user.getSkillsWantedIds(), 1, user.getSkillsOfferedIds(), 1,
+                current.idf(), current.unseenIdf(), true);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        List<HnswGraph.Scored> nearest = current.graph().search(query, k, efSearch,
+                node -> eligible.test(current.documents().get(node)));
+
+        List<UserDocument> results = new ArrayList<>(nearest.size());
+        for (HnswGraph.Scored scored : nearest) {
+            if (scored.score() <= 0) {
+                break;
+            }
+            skillIndex.get(current.documents().get(scored.node()).getKeycloakId())
+                    .filter(eligible)
+                    .ifPresent(results::add);
+        }
+        return results;
+    }
+
+    /**
+     * Ranks an evenly spread sample of users by the exact path (skill index union scored by
+     * {@link MatchScorer}) and by this index, recording the latency of both and the mean recall@k.
+     * Exact scores tie often, so an ANN result counts as a hit when it scores at least as high as the
+     * last exact result.
+     */
+    public void evaluate() {
+        Snapshot current = snapshot;
+        if (current == null || evaluationSample == 0) {
+            return;
+        }
+        List<UserDocument> users = current.documents();
+        int step = Math.max(1, users.size() / evaluationSample);
+        int evaluated = 0;
+        double recallSum = 0;
+        long exactNanos = 0;
+        long approximateNanos = 0;
+        for (int i = 0; i < users.size() && evaluated < evaluationSample; i += step) {
+            UserDocument user = users.get(i);
+            Predicate<UserDocument> notSelf = candidate -> !candidate.getKeycloakId().equals(user.getKeycloakId());
+
+            long started = System.nanoTime();
+            List<UserDocument> exact = matchScorer.topMatches(user,
+                    skillIndex.search(user.getSkillsWantedIds(), user.getSkillsOfferedIds()), notSelf, EVALUATION_K);
+            long exactDone = System.nanoTime();
+            List<UserDocument> approximate = topMatches(user, notSelf, EVALUATION_K);
+            long approximateDone = System.nanoTime();
+
+            exactTimer.record(exactDone - started, TimeUnit.NANOSECONDS);
+            approximateTimer.record(approximateDone - exactDone, TimeUnit.NANOSECONDS);
+            if (exact.isEmpty()) {
+                continue;
+            }
+            exactNanos += exactDone - started;
+            approximateNanos += approximateDone - exactDone;
+            int cutoff = matchScorer.score(user, exact.get(exact.size() - 1));
+            long hits = approximate.stream()
+                    .filter(candidate -> matchScorer.score(user, candidate) >= cutoff)
+                    .count();
+            recallSum += Math.min(1, (double) hits / exact.size());
+            evaluated++;
+        }
+        if (evaluated == 0) {
+            return;
+        }
+        recall = recallSum / evaluated;
+        log.info("ANN recall@{} is {} over {} users; mean latency {} us exact, {} us ann",
+                EVALUATION_K, String.format("%.3f", recall), evaluated,
+                TimeUnit.NANOSECONDS.toMicros(exactNanos / evaluated),
+                TimeUnit.NANOSECONDS.toMicros(approximateNanos / evaluated));
+    }
+
+    private static int maxSkillId(List<UserDocument> documents) {
+        int max = -1;
+        for (UserDocument document : documents) {
+            max = Math.max(max, last(document.getSkillsOfferedIds()));
+            max = Math.max(max, last(document.getSkillsWantedIds()));
+        }
+        return max;
+    }
+
+    // ID arrays are sorted, see SkillDictionary#idsOf
+    private static int last(int[] ids) {
+        return ids == null || ids.length == 0 ? -1 : ids[ids.length - 1];
+    }
+
+    private static void count(int[] documentFrequency, int[] ids) {
+        if (ids == null) {
+            return;
+        }
+        for (int id : ids) {
+            documentFrequency[id]++;
+        }
+    }
+
+    private record Snapshot(HnswGraph graph, List<UserDocument> documents, float[] idf, float unseenIdf) {
+    }
+}
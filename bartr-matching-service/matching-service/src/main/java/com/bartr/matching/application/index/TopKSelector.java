@@ -0,0 +1,101 @@
+package com.bartr.matching.application.index;
+
+/**
+ * Bounded min-heap over (candidate index, score) pairs held in primitive arrays. The root is always the
+ * weakest selected candidate, so offering a candidate that does not beat it costs one comparison.
+ * Ties rank the lower index first, which reproduces the order of a stable sort by descending score.
+ */
+final class TopKSelector {
+
+    private final int[] indices;
+    private final int[] scores;
+    private int size;
+
+    TopKSelector(int capacity) {
+        this.indices = new int[capacity];
+        this.scores = new int[capacity];
+    }
+
+    void offer(int index, int score) {
+        if (size < indices.length) {
+            indices[size] = index;
+            scores[size] = score;
+            siftUp(size++);
+            return;
+        }
+        if (!ranksBelow(indices[0], scores[0], index, score)) {
+            return;
+        }
+        indices[0] = index;
+        scores[0] = score;
+        siftDown(0);
+    }
+
+    void merge(TopKSelector other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.indices[i], other.scores[i]);
+        }
+    }
+
+    /**
+     * Drains the heap into candidate indices ordered best first.
+     */
+    int[] drainSorted() {
+        int[] sorted = new int[size];
+        for (int slot = size - 1; slot >= 0; slot--) {
+            sorted[slot] = indices[0];
+            size--;
+            indices[0] = indices[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+        return sorted;
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!ranksBelow(position, parent)) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int left = 2 * position + 1;
+            int right = left + 1;
+            int weakest = position;
+            if (left < size && ranksBelow(left, weakest)) {
+                weakest = left;
+            }
+            if (right < size && ranksBelow(right, weakest)) {
+                weakest = right;
+            }
+            if (weakest == position) {
+                return;
+            }
+            swap(position, weakest);
+            position = weakest;
+        }
+    }
+
+    private boolean ranksBelow(int a, int b) {
+        return ranksBelow(indices[a], scores[a], indices[b], scores[b]);
+    }
+
+    private static boolean ranksBelow(int indexA, int scoreA, int indexB, int scoreB) {
+        return scoreA < scoreB || (scoreA == scoreB && indexA > indexB);
+    }
+
+    private void swap(int a, int b) {
+        int index = indices[a];
+        indices[a] = indices[b];
+        indices[b] = index;
+        int score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
@@ -0,0 +1,39 @@
+package com.bartr.matching.application.scheduler;
+
+import com.bartr.matching.application.service.FeedPrecomputeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the feed precompute on schedule, but only once this instance's initial user sync has completed:
+ * before that the skill index may hold only some of the users, and the run would rank against it and
+ * then delete the feeds of everyone missing from it.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "matching.precompute.enabled", havingValue = "true", matchIfMissing = true)
+public class FeedPrecomputeScheduler {
+
+    private final FeedPrecomputeService feedPrecomputeService;
+    private final UserSyncScheduler userSyncScheduler;
+
+    public FeedPrecomputeScheduler(FeedPrecomputeService feedPrecomputeService, UserSyncScheduler userSyncScheduler) {
+        this.feedPrecomputeService = feedPrecomputeService;
+        this.userSyncScheduler = userSyncScheduler;
+    }
+
+    @Scheduled(cron = "${matching.precompute.cron:0 0 3 * * *}")
+    public void precomputeFeeds() {
+        if (userSyncScheduler.getInitialSyncState() != UserSyncScheduler.InitialSyncState.COMPLETED) {
+            log.info("Initial user sync has not completed on this instance, skipping feed precompute");
+            return;
+        }
+        try {
+            feedPrecomputeService.precomputeAll();
+        } catch (Exception e) {
+            log.error("Feed precompute failed: {}", e.getMessage(), e);
+        }
+    }
+}
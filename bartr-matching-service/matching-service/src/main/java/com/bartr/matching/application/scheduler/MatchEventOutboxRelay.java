@@ -0,0 +1,128 @@
+package com.bartr.matching.application.scheduler;
+
+import com.bartr.matching.domain.entity.MatchEventOutbox;
+import com.bartr.matching.domain.repositories.MatchEventOutboxRepository;
+import com.bartr.matching.messaging.MatchEventProducer;
+import com.bartr.matching.utility.EventProducerUtility;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the match events swipes leave in match_event_outbox. Each run locks a batch of unsent rows,
+ * hands all of them to Kafka before waiting on any acknowledgement, and marks the acknowledged ones sent
+ * in the same transaction. Rows that fail stay unsent and are retried on the next run, so an event may
+ * be delivered more than once but is never lost once its match has committed.
+ */
+@Component
+@Slf4j
+public class MatchEventOutboxRelay {
+
+    private final MatchEventOutboxRepository matchEventOutboxRepository;
+    private final MatchEventProducer matchEventProducer;
+    private final EventProducerUtility eventProducerUtility;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final Duration retention;
+
+    public MatchEventOutboxRelay(MatchEventOutboxRepository matchEventOutboxRepository,
+                                 MatchEventProducer matchEventProducer,
+                                 EventProducerUtility eventProducerUtility,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${matching.outbox.batch-size:200}") int batchSize,
+                                 @Value("${matching.outbox.send-timeout:PT10S}") Duration sendTimeout,
+                                 @Value("${matching.outbox.retention:P7D}") Duration retention) {
+        this.matchEventOutboxRepository = matchEventOutboxRepository;
+        this.matchEventProducer = matchEventProducer;
+        this.eventProducerUtility = eventProducerUtility;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.sendTimeout = sendTimeout;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${matching.outbox.poll-interval:PT0.5S}")
+    public void relay() {
+        try {
+            int sent;
+            do {
+                Integer published = transactionTemplate.execute(status -> publishBatch());
+                sent = published != null ? published : 0;
+            } while (sent == batchSize);
+        } catch (Exception e) {
+            log.warn("Failed to relay match events from the outbox: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${matching.outbox.cleanup-interval:PT1H}")
+    public void cleanup() {
+        try {
+            Integer deleted = transactionTemplate.execute(status ->
+                    matchEventOutboxRepository.deleteSentBefore(Instant.now().minus(retention)));
+            if (deleted != null && deleted > 0) {
+                log.info("Deleted {} published match events from the outbox", deleted);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to clean up the match event outbox: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the number of rows marked sent; anything below the batch size ends the current run.
+     */
+    private int publishBatch() {
+        List<MatchEventOutbox> batch = matchEventOutboxRepository.lockUnsent(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<CompletableFuture<?>> futures = new ArrayList<>(batch.size());
+        for (MatchEventOutbox outbox : batch) {
+            CompletableFuture<?> future;
+            try {
+                future = matchEventProducer.sendMessage(eventProducerUtility.toMatchEvent(outbox));
+            } catch (Exception e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            futures.add(future);
+        }
+
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        List<Long> failedIds = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            long id = batch.get(i).getId();
+            try {
+                futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                sentIds.add(id);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failedIds.add(id);
+            } catch (Exception e) {
+                failedIds.add(id);
+            }
+        }
+
+        if (!sentIds.isEmpty()) {
+            matchEventOutboxRepository.markSent(sentIds, Instant.now());
+        }
+        if (!failedIds.isEmpty()) {
+            matchEventOutboxRepository.incrementAttempts(failedIds);
+            log.warn("Failed to publish {} of {} match events, will retry", failedIds.size(), batch.size());
+            // Stop this run rather than spin on a broker that is not accepting events
+            return 0;
+        }
+        log.debug("Published {} match events from the outbox", sentIds.size());
+        return sentIds.size();
+    }
+}
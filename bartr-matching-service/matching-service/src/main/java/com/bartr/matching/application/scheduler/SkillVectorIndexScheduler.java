@@ -0,0 +1,37 @@
+package com.bartr.matching.application.scheduler;
+
+import com.bartr.matching.application.index.SkillVectorIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "matching.mode", havingValue = "ann")
+public class SkillVectorIndexScheduler {
+
+    private final SkillVectorIndex skillVectorIndex;
+    // Ranks the sample through both paths after every build, so it is only on while tuning
+    private final boolean evaluationEnabled;
+
+    public SkillVectorIndexScheduler(SkillVectorIndex skillVectorIndex,
+                                     @Value("${matching.ann.evaluation-enabled:false}") boolean evaluationEnabled) {
+        this.skillVectorIndex = skillVectorIndex;
+        this.evaluationEnabled = evaluationEnabled;
+    }
+
+    @Scheduled(fixedDelayString = "${matching.ann.rebuild-interval:PT10M}",
+            initialDelayString = "${matching.ann.initial-delay:PT1M}")
+    public void rebuild() {
+        try {
+            skillVectorIndex.rebuild();
+            if (evaluationEnabled) {
+                skillVectorIndex.evaluate();
+            }
+        } catch (Exception e) {
+            log.error("ANN index build failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -1,27 +1,123 @@
 package com.bartr.matching.application.scheduler;
 
+import com.bartr.matching.application.index.SkillIndex;
 import com.bartr.matching.application.service.UserSyncService;
-import jakarta.annotation.PostConstruct;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Profile edits and deletions reach the index through the user profile events, so the full sync
+ * only runs once after startup and as an occasional reconciliation for anything those events missed.
+ * The startup sync runs on its own thread after the application is ready, so the service starts
+ * serving from the existing users_index right away. The same thread first restores the skill index
+ * snapshot, so restored documents never overwrite ones the sync has already refreshed. A failed startup
+ * sync is retried with a growing delay until it completes rather than waiting for the reconciliation.
+ */
 @Component
 @Slf4j
-@AllArgsConstructor
 public class UserSyncScheduler {
 
-    private UserSyncService userSyncService;
+    public enum InitialSyncState { PENDING, SYNCING, COMPLETED, FAILED }
+
+    private final UserSyncService userSyncService;
+    private final SkillIndex skillIndex;
+    private final Duration initialRetryDelay;
+    private final Duration initialMaxRetryDelay;
+    private final int initialMaxAttempts;
 
-    @Scheduled(fixedRate = 60 * 60 * 1000)
+    // Keeps the startup sync and the reconciliation from walking user-service at the same time
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicReference<InitialSyncState> initialSyncState = new AtomicReference<>(InitialSyncState.PENDING);
+    private volatile Instant lastCompletedAt;
+
+    public UserSyncScheduler(UserSyncService userSyncService,
+                             SkillIndex skillIndex,
+                             @Value("${matching.sync.initial-retry-delay:PT1M}") Duration initialRetryDelay,
+                             @Value("${matching.sync.initial-max-retry-delay:PT15M}") Duration initialMaxRetryDelay,
+                             @Value("${matching.sync.initial-max-attempts:5}") int initialMaxAttempts) {
+        this.userSyncService = userSyncService;
+        this.skillIndex = skillIndex;
+        this.initialRetryDelay = initialRetryDelay;
+        this.initialMaxRetryDelay = initialMaxRetryDelay.compareTo(initialRetryDelay) < 0
+                ? initialRetryDelay
+                : initialMaxRetryDelay;
+        this.initialMaxAttempts = Math.max(1, initialMaxAttempts);
+    }
+
+    @Scheduled(fixedDelayString = "${matching.sync.reconcile-interval:PT24H}",
+            initialDelayString = "${matching.sync.reconcile-interval:PT24H}")
     public void syncUsers(){
-        log.info("Users synced");
-        userSyncService.syncUsers();
+        log.info("Reconciling users with user-service");
+        runSync();
     }
 
-    @PostConstruct
+    @EventListener(ApplicationReadyEvent.class)
     public void initSync(){
-        syncUsers();
+        initialSyncState.set(InitialSyncState.SYNCING);
+        Thread.ofVirtual().name("initial-user-sync").start(() -> {
+            skillIndex.restore();
+            Duration delay = initialRetryDelay;
+            for (int attempt = 1; ; attempt++) {
+                if (runSync() || initialSyncState.get() == InitialSyncState.COMPLETED) {
+                    return;
+                }
+                if (attempt == initialMaxAttempts) {
+                    initialSyncState.compareAndSet(InitialSyncState.SYNCING, InitialSyncState.FAILED);
+                }
+                log.info("Retrying initial user sync in {} (attempt {})", delay, attempt + 1);
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    initialSyncState.compareAndSet(InitialSyncState.SYNCING, InitialSyncState.FAILED);
+                    return;
+                }
+                delay = delay.multipliedBy(2).compareTo(initialMaxRetryDelay) > 0
+                        ? initialMaxRetryDelay
+                        : delay.multipliedBy(2);
+            }
+        });
+    }
+
+    public InitialSyncState getInitialSyncState() {
+        return initialSyncState.get();
+    }
+
+    public Instant getLastCompletedAt() {
+        return lastCompletedAt;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Returns true when this call ran a sync to completion, false when it failed or another sync was running.
+     */
+    private boolean runSync() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("User sync already in progress, skipping");
+            return false;
+        }
+        try {
+            userSyncService.syncUsers();
+            lastCompletedAt = Instant.now();
+            initialSyncState.set(InitialSyncState.COMPLETED);
+            return true;
+        } catch (Exception e) {
+            log.error("User sync failed: {}", e.getMessage(), e);
+            return false;
+        } finally {
+            running.set(false);
+        }
     }
 }
@@ -0,0 +1,169 @@
+package com.bartr.matching.application.service;
+
+import com.bartr.matching.UserExclusionDocument;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.ScriptType;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains the per-user exclusion documents in Elasticsearch that the feed query reads through a
+ * terms lookup. Writes are idempotent appends, so replaying a swipe or re-seeding a user is harmless.
+ *
+ * <p>Appends never run on the caller's thread: they are coalesced per user and written by a single
+ * background writer, so a swipe does not wait on Elasticsearch. A failed write goes back into the
+ * pending set and is retried on the next flush; when more than {@code max-pending-users} users are
+ * waiting, new appends are dropped, since the feed also filters exclusions in memory.
+ */
+@Slf4j
+@Service
+public class ExclusionIndexService {
+
+    private static final IndexCoordinates INDEX = IndexCoordinates.of(UserExclusionDocument.INDEX_NAME);
+
+    private static final String APPEND_SCRIPT =
+            "if (ctx._source.excludedUserIds == null) { ctx._source.excludedUserIds = new ArrayList(); }"
+            + " Set existing = new HashSet(ctx._source.excludedUserIds);"
+            + " boolean changed = false;"
+            + " for (String id : params.ids) { if (existing.add(id)) { ctx._source.excludedUserIds.add(id); changed = true; } }"
+            + " if (!changed) { ctx.op = 'noop'; }";
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final Duration flushInterval;
+    private final int maxPendingUsers;
+
+    // Excluded user IDs per user, waiting for the writer
+    private final ConcurrentHashMap<UUID, Set<String>> pending = new ConcurrentHashMap<>();
+
+    private volatile boolean running = true;
+    private Thread writer;
+
+    public ExclusionIndexService(ElasticsearchOperations elasticsearchOperations,
+                                 @Value("${matching.exclusions.index.flush-interval:200ms}") Duration flushInterval,
+                                 @Value("${matching.exclusions.index.max-pending-users:100000}") int maxPendingUsers) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.flushInterval = flushInterval;
+        this.maxPendingUsers = maxPendingUsers;
+    }
+
+    @PostConstruct
+    public void start() {
+        writer = Thread.ofPlatform().daemon().name("exclusion-index-writer").start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        // One last attempt for anything still pending before the context closes
+        flush();
+    }
+
+    public void addExclusion(UUID userId, UUID excludedUserId) {
+        addExclusions(userId, List.of(excludedUserId));
+    }
+
+    /**
+     * Queues the IDs to be appended to the user's exclusion document.
+     */
+    public void addExclusions(UUID userId, Collection<UUID> excludedUserIds) {
+        if (userId == null || excludedUserIds == null || excludedUserIds.isEmpty()) {
+            return;
+        }
+        List<String> ids = new ArrayList<>(excludedUserIds.size());
+        for (UUID excludedUserId : excludedUserIds) {
+            ids.add(excludedUserId.toString());
+        }
+        enqueue(userId, ids);
+    }
+
+    public void removeUser(UUID userId) {
+        // Dropped first so a pending append cannot recreate the document after the delete
+        pending.remove(userId);
+        try {
+            elasticsearchOperations.delete(userId.toString(), INDEX);
+        } catch (Exception e) {
+            log.warn("Failed to delete exclusion document for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private void enqueue(UUID userId, Collection<String> ids) {
+        if (pending.size() >= maxPendingUsers && !pending.containsKey(userId)) {
+            log.warn("Exclusion index backlog is full, dropping {} exclusions for user {}", ids.size(), userId);
+            return;
+        }
+        pending.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).addAll(ids);
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Thread.sleep(flushInterval);
+                flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Exclusion index flush failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void flush() {
+        int failed = 0;
+        for (UUID userId : pending.keySet()) {
+            Set<String> ids = pending.remove(userId);
+            if (ids == null || ids.isEmpty()) {
+                continue;
+            }
+            if (!write(userId, new ArrayList<>(ids))) {
+                enqueue(userId, ids);
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            log.warn("Failed to update exclusion documents for {} users, retrying on the next flush", failed);
+        }
+    }
+
+    private boolean write(UUID userId, List<String> ids) {
+
+        Document upsert = Document.create();
+        upsert.put("keycloakId", userId.toString());
+        upsert.put(UserExclusionDocument.EXCLUDED_USER_IDS, new ArrayList<>());
+
+        UpdateQuery updateQuery = UpdateQuery.builder(userId.toString())
+                .withScript(APPEND_SCRIPT)
+                .withScriptType(ScriptType.INLINE)
+                .withLang("painless")
+                .withParams(Map.of("ids", ids))
+                .withUpsert(upsert)
+                .withScriptedUpsert(true)
+                .withRetryOnConflict(3)
+                .build();
+        try {
+            elasticsearchOperations.update(updateQuery, INDEX);
+            return true;
+        } catch (Exception e) {
+            log.debug("Failed to update exclusion document for user {}: {}", userId, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.bartr.matching.application.service;
+
+import com.bartr.matching.UserDocument;
+import com.bartr.matching.application.index.ExclusionSet;
+import com.bartr.matching.application.index.MatchScorer;
+import com.bartr.matching.application.index.SkillIndex;
+import com.bartr.matching.domain.entity.PrecomputedFeed;
+import com.bartr.matching.domain.repositories.MatchAdjacencyRepository;
+import com.bartr.matching.domain.repositories.PrecomputedFeedRepository;
+import com.bartr.matching.domain.repositories.SwipeHistoryRepository;
+import com.bartr.matching.domain.repositories.UserPair;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Offline ranking of every user's top candidates. The skill graph changes slowly, so instead of scoring
+ * on each feed load the job walks every document in the {@link SkillIndex}, scores each user's skill
+ * neighbours with {@link MatchScorer} on a dedicated fork-join pool, drops the users they had already
+ * swiped on or matched with at the time, and stores the best {@code top-n} in precomputed_feed.
+ * Rows are written in chunks of their own transactions; rows the run did not touch are deleted at the end,
+ * unless some users could not be ranked, in which case their previous rows are left in place.
+ *
+ * <p>Every instance schedules the job, so a run first takes a Postgres advisory lock held by a transaction
+ * that spans the run; the other instances skip. Exclusions are loaded with two queries per fork-join leaf
+ * rather than two per user.
+ */
+@Slf4j
+@Service
+public class FeedPrecomputeService {
+
+    // Users scored by one fork-join leaf
+    private static final int LEAF_SIZE = 64;
+
+    private final SkillIndex skillIndex;
+    private final MatchScorer matchScorer;
+    private final SwipeHistoryRepository swipeHistoryRepository;
+    private final MatchAdjacencyRepository matchAdjacencyRepository;
+    private final PrecomputedFeedRepository precomputedFeedRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate lockTemplate;
+    private final int topN;
+    private final int parallelism;
+    private final int writeChunkSize;
+
+    public FeedPrecomputeService(SkillIndex skillIndex,
+                                 MatchScorer matchScorer,
+                                 SwipeHistoryRepository swipeHistoryRepository,
+                                 MatchAdjacencyRepository matchAdjacencyRepository,
+                                 PrecomputedFeedRepository precomputedFeedRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${matching.precompute.top-n:50}") int topN,
+                                 @Value("${matching.precompute.parallelism:4}") int parallelism,
+                                 @Value("${matching.precompute.write-chunk-size:500}") int writeChunkSize) {
+        this.skillIndex = skillIndex;
+        this.matchScorer = matchScorer;
+        this.swipeHistoryRepository = swipeHistoryRepository;
+        this.matchAdjacencyRepository = matchAdjacencyRepository;
+        this.precomputedFeedRepository = precomputedFeedRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.lockTemplate = new TransactionTemplate(transactionManager);
+        this.topN = Math.max(1, topN);
+        this.parallelism = Math.max(1, parallelism);
+        this.writeChunkSize = Math.max(1, writeChunkSize);
+    }
+
+    /**
+     * Returns the number of users whose feed was written, or -1 when the skill index is still empty or
+     * another instance is already running the precompute.
+     */
+    public int precomputeAll() {
+        Integer written = lockTemplate.execute(status -> {
+            if (!precomputedFeedRepository.tryLockPrecompute()) {
+                log.info("Feed precompute is running on another instance, skipping");
+                return -1;
+            }
+            return precomputeLocked();
+        });
+        return written != null ? written : -1;
+    }
+
+    private int precomputeLocked() {
+        List<UserDocument> users = skillIndex.documents();
+        if (users.isEmpty()) {
+            log.warn("Skill index is empty, skipping feed precompute");
+            return -1;
+        }
+        Instant runStartedAt = Instant.now();
+        log.info("Precomputing top {} candidates for {} users", topN, users.size());
+
+        @SuppressWarnings("unchecked")
+        List<UUID>[] feeds = new List[users.size()];
+        AtomicInteger failedUsers = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new RankingTask(users, feeds, failedUsers, 0, users.size()));
+        } finally {
+            pool.shutdown();
+        }
+
+        int written = 0;
+        for (int from = 0; from < users.size(); from += writeChunkSize) {
+            int to = Math.min(users.size(), from + writeChunkSize);
+            int start = from;
+            Integer chunk = transactionTemplate.execute(status -> {
+                int count = 0;
+                for (int i = start; i < to; i++) {
+                    if (feeds[i] != null && !feeds[i].isEmpty()) {
+                        precomputedFeedRepository.upsert(users.get(i).getKeycloakId(),
+                                PrecomputedFeed.encode(feeds[i]), runStartedAt);
+                        count++;
+                    }
+                }
+                return count;
+            });
+            written += chunk != null ? chunk : 0;
+        }
+        if (failedUsers.get() > 0) {
+            // The stale rows cannot be told apart from the feeds of the users this run missed
+            log.warn("Precomputed feeds for {} users in {} ms, {} users failed; keeping older feeds",
+                    written, Instant.now().toEpochMilli() - runStartedAt.toEpochMilli(), failedUsers.get());
+            return written;
+        }
+        int stale = precomputedFeedRepository.deleteComputedBefore(runStartedAt);
+        log.info("Precomputed feeds for {} users in {} ms, removed {} stale feeds",
+                written, Instant.now().toEpochMilli() - runStartedAt.toEpochMilli(), stale);
+        return written;
+    }
+
+    /**
+     * Exclusion sets for one leaf of users, from one swipe and one match query.
+     */
+    private Map<UUID, ExclusionSet> loadExclusions(List<UserDocument> users) {
+        List<UUID> userIds = users.stream().map(UserDocument::getKeycloakId).toList();
+        Map<UUID, List<UUID>> swiped = group(swipeHistoryRepository.findSwipedUserIdsByUserIdIn(userIds));
+        Map<UUID, List<UUID>> matched = group(matchAdjacencyRepository.findPartnerIdsForUsers(userIds));
+        Map<UUID, ExclusionSet> exclusions = new HashMap<>(userIds.size() * 2);
+        for (UUID userId : userIds) {
+            exclusions.put(userId, new ExclusionSet(
+                    swiped.getOrDefault(userId, List.of()), matched.getOrDefault(userId, List.of())));
+        }
+        return exclusions;
+    }
+
+    private static Map<UUID, List<UUID>> group(List<UserPair> pairs) {
+        Map<UUID, List<UUID>> grouped = new HashMap<>();
+        for (UserPair pair : pairs) {
+            grouped.computeIfAbsent(pair.userId(), id -> new ArrayList<>()).add(pair.otherUserId());
+        }
+        return grouped;
+    }
+
+    private List<UUID> rank(UserDocument user, ExclusionSet exclusions) {
+        UUID userId = user.getKeycloakId();
+        List<UserDocument> neighbours = skillIndex.search(user.getSkillsWantedIds(), user.getSkillsOfferedIds());
+        if (neighbours.isEmpty()) {
+            return List.of();
+        }
+        return matchScorer.topMatches(user, neighbours,
+                        candidate -> !candidate.getKeycloakId().equals(userId) && !exclusions.contains(candidate.getKeycloakId()),
+                        topN)
+                .stream()
+                .map(UserDocument::getKeycloakId)
+                .toList();
+    }
+
+    private final class RankingTask extends RecursiveAction {
+        private final List<UserDocument> users;
+        private final List<UUID>[] feeds;
+        private final AtomicInteger failedUsers;
+        private final int from;
+        private final int to;
+
+        RankingTask(List<UserDocument> users, List<UUID>[] feeds, AtomicInteger failedUsers, int from, int to) {
+            this.users = users;
+            this.feeds = feeds;
+            this.failedUsers = failedUsers;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                Map<UUID, ExclusionSet> exclusions;
+                try {
+                    exclusions = loadExclusions(users.subList(from, to));
+                } catch (Exception e) {
+                    // Leaves these users' previous feeds in place; the live pipeline covers them
+                    log.warn("Failed to load exclusions for {} users: {}", to - from, e.getMessage());
+                    failedUsers.addAndGet(to - from);
+                    return;
+                }
+                for (int i = from; i < to; i++) {
+                    try {
+                        feeds[i] = rank(users.get(i), exclusions.get(users.get(i).getKeycloakId()));
+                    } catch (Exception e) {
+                        // Leaves the user's previous feed in place; the live pipeline covers them
+                        log.warn("Failed to precompute feed for user {}: {}", users.get(i).getKeycloakId(), e.getMessage());
+                        failedUsers.incrementAndGet();
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RankingTask(users, feeds, failedUsers, from, middle),
+                    new RankingTask(users, feeds, failedUsers, middle, to));
+        }
+    }
+}
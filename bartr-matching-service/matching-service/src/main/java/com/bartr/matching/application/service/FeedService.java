@@ -0,0 +1,201 @@
+package com.bartr.matching.application.service;
+
+import com.bartr.common.core.exception.ErrorConstant;
+import com.bartr.common.core.exception.ServiceException;
+import com.bartr.matching.UserDocument;
+import com.bartr.matching.application.index.ExclusionSet;
+import com.bartr.matching.application.index.ExclusionSetStore;
+import com.bartr.matching.response.FeedPageResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cursor-paged candidate feed. The first page opens an Elasticsearch point-in-time over users_index and
+ * every page continues with search_after on (score, keycloakId), so later pages see the same snapshot
+ * and never re-collect the hits already served. The PIT id and the last sort values travel to the
+ * client inside an opaque cursor.
+ */
+@Slf4j
+@Service
+public class FeedService {
+
+    private static final IndexCoordinates USERS_INDEX = IndexCoordinates.of("users_index");
+    private static final int CURSOR_VERSION = 1;
+
+    private final MatchingService matchingService;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ExclusionSetStore exclusionSetStore;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final Duration keepAlive;
+
+    public FeedService(MatchingService matchingService,
+                       ElasticsearchOperations elasticsearchOperations,
+                       ExclusionSetStore exclusionSetStore,
+                       @Value("${matching.feed.page-size:20}") int defaultPageSize,
+                       @Value("${matching.feed.max-page-size:50}") int maxPageSize,
+                       @Value("${matching.feed.keep-alive:5m}") Duration keepAlive) {
+        this.matchingService = matchingService;
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.exclusionSetStore = exclusionSetStore;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.keepAlive = keepAlive;
+    }
+
+    public FeedPageResponse getFeedPage(UUID keycloakId, String cursor, Integer size) {
+        if (keycloakId == null) {
+            log.error("KeycloakId cannot be null");
+            throw new ServiceException("40000001", "KeycloakId cannot be null",
+                    ErrorConstant.CATEGORY.BV, ErrorConstant.SEVERITY.I, HttpStatus.BAD_REQUEST);
+        }
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        FeedCursor position = cursor == null || cursor.isBlank() ? null : decode(cursor, keycloakId);
+
+        UserDocument currentUser = matchingService.resolveCurrentUser(keycloakId);
+        List<String> myOffered = currentUser != null
+                ? MatchingService.nonBlankSkills(currentUser.getSkillsOffered()) : Collections.emptyList();
+        List<String> myWanted = currentUser != null
+                ? MatchingService.nonBlankSkills(currentUser.getSkillsWanted()) : Collections.emptyList();
+        if (myOffered.isEmpty() && myWanted.isEmpty()) {
+            log.warn("User {} has no skills to build a feed from", keycloakId);
+            if (position != null) {
+                closeQuietly(position.pitId());
+            }
+            return FeedPageResponse.builder().profiles(Collections.emptyList()).build();
+        }
+
+        String pitId = position != null
+                ? position.pitId()
+                : elasticsearchOperations.openPointInTime(USERS_INDEX, keepAlive);
+
+        NativeQueryBuilder builder = NativeQuery.builder()
+                .withQuery(matchingService.buildCandidateQuery(keycloakId, currentUser))
+                .withPointInTime(new Query.PointInTime(pitId, keepAlive))
+                .withSort(MatchingService.CANDIDATE_SORT)
+                .withTrackScores(true)
+                .withPageable(PageRequest.of(0, pageSize));
+        if (position != null) {
+            builder.withSearchAfter(List.of(position.score(), position.lastKeycloakId()));
+        }
+
+        SearchHits<UserDocument> hits;
+        try {
+            hits = elasticsearchOperations.search(builder.build(), UserDocument.class);
+        } catch (Exception e) {
+            if (position != null && isExpiredPointInTime(e)) {
+                throw new ServiceException("40000006", "Feed cursor has expired, restart the feed",
+                        ErrorConstant.CATEGORY.BV, ErrorConstant.SEVERITY.I, HttpStatus.GONE);
+            }
+            if (position == null) {
+                closeQuietly(pitId);
+            }
+            log.error("Error fetching feed page for user {}: {}", keycloakId, e.getMessage(), e);
+            throw new ServiceException("50000004", "Failed to fetch feed: " + e.getMessage(),
+                    ErrorConstant.CATEGORY.TS, ErrorConstant.SEVERITY.C, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        // The in-memory set covers swipes whose exclusion-document update has not been indexed yet
+        ExclusionSet exclusions = exclusionSetStore.get(keycloakId);
+        List<UserDocument> profiles = new ArrayList<>(hits.getSearchHits().size());
+        for (SearchHit<UserDocument> hit : hits.getSearchHits()) {
+            if (!exclusions.contains(hit.getContent().getKeycloakId())) {
+                profiles.add(hit.getContent());
+            }
+        }
+
+        String currentPitId = hits.getPointInTimeId() != null ? hits.getPointInTimeId() : pitId;
+        String nextCursor = null;
+        if (hits.getSearchHits().size() < pageSize) {
+            closeQuietly(currentPitId);
+        } else {
+            List<Object> sortValues = hits.getSearchHits().get(hits.getSearchHits().size() - 1).getSortValues();
+            nextCursor = encode(new FeedCursor(keycloakId, currentPitId,
+                    ((Number) sortValues.get(0)).doubleValue(), String.valueOf(sortValues.get(1))));
+        }
+
+        log.debug("Returning feed page of {} profiles for user {}, more: {}", profiles.size(), keycloakId, nextCursor != null);
+        return FeedPageResponse.builder()
+                .profiles(profiles)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private boolean isExpiredPointInTime(Exception e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            String message = t.getMessage();
+            if (message != null && (message.contains("search_context_missing_exception")
+                    || message.contains("No search context found"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void closeQuietly(String pitId) {
+        try {
+            elasticsearchOperations.closePointInTime(pitId);
+        } catch (Exception e) {
+            log.debug("Failed to close point-in-time {}: {}", pitId, e.getMessage());
+        }
+    }
+
+    private String encode(FeedCursor cursor) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(CURSOR_VERSION);
+            out.writeLong(cursor.owner().getMostSignificantBits());
+            out.writeLong(cursor.owner().getLeastSignificantBits());
+            out.writeUTF(cursor.pitId());
+            out.writeDouble(cursor.score());
+            out.writeUTF(cursor.lastKeycloakId());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode feed cursor", e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    private FeedCursor decode(String cursor, UUID keycloakId) {
+        FeedCursor decoded;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            if (in.readByte() != CURSOR_VERSION) {
+                throw new IOException("Unsupported cursor version");
+            }
+            UUID owner = new UUID(in.readLong(), in.readLong());
+            decoded = new FeedCursor(owner, in.readUTF(), in.readDouble(), in.readUTF());
+        } catch (IllegalArgumentException | IOException e) {
+            throw new ServiceException("40000005", "Invalid feed cursor",
+                    ErrorConstant.CATEGORY.BV, ErrorConstant.SEVERITY.I, HttpStatus.BAD_REQUEST);
+        }
+        if (!decoded.owner().equals(keycloakId)) {
+            throw new ServiceException("40000005", "Invalid feed cursor",
+                    ErrorConstant.CATEGORY.BV, ErrorConstant.SEVERITY.I, HttpStatus.BAD_REQUEST);
+        }
+        return decoded;
+    }
+
+    private record FeedCursor(UUID owner, String pitId, double score, String lastKeycloakId) {
+    }
+}
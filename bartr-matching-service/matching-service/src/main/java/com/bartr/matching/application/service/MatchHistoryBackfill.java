@@ -0,0 +1,47 @@
+package com.bartr.matching.application.service;
+
+import com.bartr.matching.domain.repositories.MatchAdjacencyRepository;
+import com.bartr.matching.domain.repositories.MatchHistoryRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Brings matches recorded before the pair key and adjacency table existed up to date. New matches are
+ * written with both, so once every row has a pair key this finds nothing to do.
+ */
+@Slf4j
+@Component
+public class MatchHistoryBackfill {
+
+    private final MatchHistoryRepository matchHistoryRepository;
+    private final MatchAdjacencyRepository matchAdjacencyRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public MatchHistoryBackfill(MatchHistoryRepository matchHistoryRepository,
+                                MatchAdjacencyRepository matchAdjacencyRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.matchHistoryRepository = matchHistoryRepository;
+        this.matchAdjacencyRepository = matchAdjacencyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void backfill() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int removed = matchHistoryRepository.deleteDuplicatePairsWithoutKey();
+                int keyed = matchHistoryRepository.backfillPairKeys();
+                if (removed > 0 || keyed > 0) {
+                    int adjacencyRows = matchAdjacencyRepository.backfillFromMatchHistory();
+                    log.info("Backfilled match history: {} duplicate matches removed, {} pair keys set, {} adjacency rows added",
+                            removed, keyed, adjacencyRows);
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Failed to backfill match history pair keys: {}", e.getMessage());
+        }
+    }
+}
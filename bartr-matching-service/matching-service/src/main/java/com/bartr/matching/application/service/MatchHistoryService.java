@@ -0,0 +1,126 @@
+package com.bartr.matching.application.service;
+
+import com.bartr.common.core.exception.ErrorConstant;
+import com.bartr.common.core.exception.ServiceException;
+import com.bartr.matching.domain.entity.MatchHistory;
+import com.bartr.matching.domain.repositories.MatchHistoryRepository;
+import com.bartr.matching.response.MatchHistoryPageResponse;
+import com.bartr.matching.response.MatchHistoryResponse;
+import com.bartr.matching.response.UserProfileDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keyset-paged match history, newest first. The cursor carries the (matchedDate, id) of the last match
+ * served, so every page is an index range scan after that position no matter how deep the user pages.
+ */
+@Slf4j
+@Service
+public class MatchHistoryService {
+
+    private static final int CURSOR_VERSION = 1;
+    // Sorts after every real match, so the first page needs no special query
+    private static final LocalDate FIRST_PAGE_DATE = LocalDate.of(9999, 12, 31);
+
+    private final MatchHistoryRepository matchHistoryRepository;
+    private final MatchingService matchingService;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public MatchHistoryService(MatchHistoryRepository matchHistoryRepository,
+                               MatchingService matchingService,
+                               @Value("${matching.history.page-size:20}") int defaultPageSize,
+                               @Value("${matching.history.max-page-size:100}") int maxPageSize) {
+        this.matchHistoryRepository = matchHistoryRepository;
+        this.matchingService = matchingService;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @Transactional(readOnly = true)
+    public MatchHistoryPageResponse getMatchHistoryPage(UUID keycloakId, String cursor, Integer size) {
+        if (keycloakId == null) {
+            log.error("KeycloakId cannot be null");
+            throw new ServiceException("40000001", "KeycloakId cannot be null",
+                    ErrorConstant.CATEGORY.BV, ErrorConstant.SEVERITY.I, HttpStatus.BAD_REQUEST);
+        }
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        HistoryCursor position = cursor == null || cursor.isBlank()
+                ? new HistoryCursor(FIRST_PAGE_DATE, Long.MAX_VALUE)
+                : decode(cursor);
+
+        // One extra row tells whether another page exists without a count query
+        List<MatchHistory> matches = matchHistoryRepository.findMatchPageForUser(
+                keycloakId, position.matchedDate(), position.id(), pageSize + 1);
+        boolean hasMore = matches.size() > pageSize;
+        if (hasMore) {
+            matches = matches.subList(0, pageSize);
+        }
+
+        Map<UUID, UserProfileDto> partnerProfiles = matchingService.fetchProfiles(matches.stream()
+                .map(match -> partnerOf(match, keycloakId))
+                .distinct()
+                .toList());
+
+        List<MatchHistoryResponse> responses = matches.stream()
+                .map(match -> MatchHistoryResponse.builder()
+                        .user1Id(match.getUser1Id())
+                        .user2Id(match.getUser2Id())
+                        .matchedDate(match.getMatchedDate())
+                        .otherUser(partnerProfiles.get(partnerOf(match, keycloakId)))
+                        .build())
+                .toList();
+
+        MatchHistory last = matches.isEmpty() ? null : matches.get(matches.size() - 1);
+        return MatchHistoryPageResponse.builder()
+                .matches(responses)
+                .nextCursor(hasMore ? encode(new HistoryCursor(last.getMatchedDate(), last.getId())) : null)
+                .build();
+    }
+
+    private static UUID partnerOf(MatchHistory match, UUID keycloakId) {
+        return match.getUser1Id().equals(keycloakId) ? match.getUser2Id() : match.getUser1Id();
+    }
+
+    private String encode(HistoryCursor cursor) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(CURSOR_VERSION);
+            out.writeLong(cursor.matchedDate().toEpochDay());
+            out.writeLong(cursor.id());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode history cursor", e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    private HistoryCursor decode(String cursor) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            if (in.readByte() != CURSOR_VERSION) {
+                throw new IOException("Unsupported cursor version");
+            }
+            return new HistoryCursor(LocalDate.ofEpochDay(in.readLong()), in.readLong());
+        } catch (IllegalArgumentException | DateTimeException | IOException e) {
+            throw new ServiceException("40000005", "Invalid history cursor",
+                    ErrorConstant.CATEGORY.BV, ErrorConstant.SEVERITY.I, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private record HistoryCursor(LocalDate matchedDate, long id) {
+    }
+}
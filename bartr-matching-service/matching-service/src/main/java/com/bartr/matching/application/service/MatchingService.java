@@ -1,15 +1,31 @@
 package com.bartr.matching.application.service;
 
-import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.util.ObjectBuilder;
 import com.bartr.matching.UserDocument;
-import com.bartr.matching.domain.entity.SwipeHistory;
+import com.bartr.matching.UserExclusionDocument;
+import com.bartr.matching.application.index.ExclusionSet;
+import com.bartr.matching.application.index.ExclusionSetStore;
+import com.bartr.matching.application.index.FeedCache;
+import com.bartr.matching.application.index.InboundLikeStore;
+import com.bartr.matching.application.index.MatchScorer;
+import com.bartr.matching.application.index.SkillDictionary;
+import com.bartr.matching.application.index.SkillIndex;
+import com.bartr.matching.application.index.SkillVectorIndex;
+import com.bartr.matching.domain.repositories.MatchAdjacencyRepository;
+import com.bartr.matching.domain.entity.PrecomputedFeed;
 import com.bartr.matching.domain.repositories.MatchHistoryRepository;
-import com.bartr.matching.domain.repositories.SwipeHistoryRepository;
+import com.bartr.matching.domain.repositories.PrecomputedFeedRepository;
 import com.bartr.matching.domain.repositories.UserElasticsearchRepository;
 import com.bartr.common.core.exception.ErrorConstant;
 import com.bartr.common.core.exception.ServiceException;
-import lombok.AllArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
@@ -19,20 +35,96 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
-@AllArgsConstructor
 public class MatchingService {
 
-    private UserElasticsearchRepository userElasticsearchRepository;
-    private ElasticsearchOperations elasticsearchOperations;
-    private MatchHistoryRepository matchHistoryRepository;
-    private SwipeHistoryRepository swipeHistoryRepository;
-    private com.bartr.matching.application.service.UserSyncService userSyncService;
-    private com.bartr.matching.UserServiceClient userServiceClient;
+    private static final int TOP_MATCHES_SIZE = 20;
+    // Must not exceed user.profile.max-batch-size in user-service
+    private static final int PROFILE_BATCH_SIZE = 500;
+
+    // Score first, keycloakId as a stable tie-breaker so equal scores page deterministically
+    static final List<SortOptions> CANDIDATE_SORT = List.of(
+            SortOptions.of(so -> so.score(sc -> sc.order(SortOrder.Desc))),
+            SortOptions.of(so -> so.field(f -> f.field("keycloakId").order(SortOrder.Asc))));
+
+    private final UserElasticsearchRepository userElasticsearchRepository;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final MatchHistoryRepository matchHistoryRepository;
+    private final MatchAdjacencyRepository matchAdjacencyRepository;
+    private final com.bartr.matching.application.service.UserSyncService userSyncService;
+    private final com.bartr.matching.UserServiceClient userServiceClient;
+    private final SkillIndex skillIndex;
+    private final ExclusionSetStore exclusionSetStore;
+    private final MatchScorer matchScorer;
+    private final SkillDictionary skillDictionary;
+    private final FeedCache feedCache;
+    private final PrecomputedFeedRepository precomputedFeedRepository;
+    private final InboundLikeStore inboundLikeStore;
+    // Present only with matching.mode=ann
+    private final Optional<SkillVectorIndex> skillVectorIndex;
+    private final Duration lookupDeadline;
+    private final Duration precomputedMaxAge;
+    private final int maxInboundBoost;
+    private final Counter exclusionTimeouts;
+    // The exclusion load and the candidate search block on I/O, so each gets a virtual thread
+    private final ExecutorService lookupExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public MatchingService(UserElasticsearchRepository userElasticsearchRepository,
+                           ElasticsearchOperations elasticsearchOperations,
+                           MatchHistoryRepository matchHistoryRepository,
+                           MatchAdjacencyRepository matchAdjacencyRepository,
+                           com.bartr.matching.application.service.UserSyncService userSyncService,
+                           com.bartr.matching.UserServiceClient userServiceClient,
+                           SkillIndex skillIndex,
+                           ExclusionSetStore exclusionSetStore,
+                           MatchScorer matchScorer,
+                           SkillDictionary skillDictionary,
+                           FeedCache feedCache,
+                           PrecomputedFeedRepository precomputedFeedRepository,
+                           InboundLikeStore inboundLikeStore,
+                           Optional<SkillVectorIndex> skillVectorIndex,
+                           MeterRegistry meterRegistry,
+                           @Value("${matching.feed.lookup-deadline:PT2S}") Duration lookupDeadline,
+                           @Value("${matching.precompute.max-age:PT26H}") Duration precomputedMaxAge,
+                           @Value("${matching.feed.inbound-boost:10}") int maxInboundBoost) {
+        this.userElasticsearchRepository = userElasticsearchRepository;
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.matchHistoryRepository = matchHistoryRepository;
+        this.matchAdjacencyRepository = matchAdjacencyRepository;
+        this.userSyncService = userSyncService;
+        this.userServiceClient = userServiceClient;
+        this.skillIndex = skillIndex;
+        this.exclusionSetStore = exclusionSetStore;
+        this.matchScorer = matchScorer;
+        this.skillDictionary = skillDictionary;
+        this.feedCache = feedCache;
+        this.precomputedFeedRepository = precomputedFeedRepository;
+        this.inboundLikeStore = inboundLikeStore;
+        this.skillVectorIndex = skillVectorIndex;
+        this.lookupDeadline = lookupDeadline;
+        this.precomputedMaxAge = precomputedMaxAge;
+        this.maxInboundBoost = Math.max(0, Math.min(TOP_MATCHES_SIZE, maxInboundBoost));
+        this.exclusionTimeouts = Counter.builder("matching.feed.exclusions.timeout")
+                .description("Feed requests whose exclusion set was not loaded within the lookup deadline")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lookupExecutor.shutdownNow();
+    }
 
     @Transactional(readOnly = true)
     public List<UserDocument> findTopMatches(UUID keycloakId) {
@@ -41,53 +133,32 @@ public class MatchingService {
             throw new ServiceException("40000001", "KeycloakId cannot be null",
                     ErrorConstant.CATEGORY.BV, ErrorConstant.SEVERITY.I, HttpStatus.BAD_REQUEST);
         }
-        // Try to find user by keycloakId (which is the @Id field)
-        UserDocument currentUser = null;
-        try {
-            currentUser = userElasticsearchRepository.findById(keycloakId)
-                    .orElse(null);
+        return boostInboundLikes(keycloakId, rankTopMatches(keycloakId));
+    }
 
-            // Fallback: try the custom method if findById doesn't work
-            if (currentUser == null) {
-                currentUser = userElasticsearchRepository.getUserProfileByKeycloakId(keycloakId)
-                        .orElse(null);
-            }
-        } catch (Exception e) {
-            log.warn("Elasticsearch is not reachable when fetching current user. Will fetch from User Service: {}", e.getMessage());
+    private List<UserDocument> rankTopMatches(UUID keycloakId) {
+        List<UserDocument> cached = cachedTopMatches(keycloakId);
+        if (cached != null) {
+            log.debug("Returning {} cached matches for user {}", cached.size(), keycloakId);
+            return cached;
+        }
+        List<UserDocument> precomputed = precomputedTopMatches(keycloakId);
+        if (precomputed != null) {
+            log.debug("Returning {} precomputed matches for user {}", precomputed.size(), keycloakId);
+            return precomputed;
         }
 
-        // If user not found in Elasticsearch, fetch from User Service
+        UserDocument currentUser = resolveCurrentUser(keycloakId);
         if (currentUser == null) {
-            log.info("User not found in Elasticsearch. Fetching from User Service for keycloakId: {}", keycloakId);
-            try {
-                com.bartr.matching.response.UserProfileDto userDto = userServiceClient.getUserProfileByKeycloakId(keycloakId);
-                if (userDto != null) {
-                    currentUser = convertToUserDocument(userDto);
-                    log.info("Successfully fetched user from User Service");
-                } else {
-                    log.warn("User not found in User Service for keycloakId: {}", keycloakId);
-                    return Collections.emptyList();
-                }
-            } catch (Exception e) {
-                log.error("Error fetching user from User Service: {}", e.getMessage(), e);
-                return Collections.emptyList();
-            }
+            return Collections.emptyList();
         }
 
         log.debug("Finding matches for user: {}, skills offered: {}, skills wanted: {}",
                 currentUser.getKeycloakId(), currentUser.getSkillsOffered(), currentUser.getSkillsWanted());
 
         // If skills are empty, try to re-sync the user from user service
-        List<String> myOffered = currentUser.getSkillsOffered() != null
-                ? currentUser.getSkillsOffered().stream()
-                .filter(s -> s != null && !s.trim().isEmpty())
-                .collect(Collectors.toList())
-                : Collections.emptyList();
-        List<String> myWanted = currentUser.getSkillsWanted() != null
-                ? currentUser.getSkillsWanted().stream()
-                .filter(s -> s != null && !s.trim().isEmpty())
-                .collect(Collectors.toList())
-                : Collections.emptyList();
+        List<String> myOffered = nonBlankSkills(currentUser.getSkillsOffered());
+        List<String> myWanted = nonBlankSkills(currentUser.getSkillsWanted());
 
         if (myOffered.isEmpty() && myWanted.isEmpty()) {
             log.warn("User found in Elasticsearch but has no skills. Attempting to re-sync from user service...");
@@ -104,109 +175,93 @@ public class MatchingService {
                     log.info("Re-synced user. New skills offered: {}, skills wanted: {}",
                             currentUser.getSkillsOffered(), currentUser.getSkillsWanted());
                     // Re-calculate skills after sync
-                    myOffered = currentUser.getSkillsOffered() != null
-                            ? currentUser.getSkillsOffered().stream()
-                            .filter(s -> s != null && !s.trim().isEmpty())
-                            .collect(Collectors.toList())
-                            : Collections.emptyList();
-                    myWanted = currentUser.getSkillsWanted() != null
-                            ? currentUser.getSkillsWanted().stream()
-                            .filter(s -> s != null && !s.trim().isEmpty())
-                            .collect(Collectors.toList())
-                            : Collections.emptyList();
+                    skillDictionary.ensureRegisteredIds(currentUser);
+                    myOffered = nonBlankSkills(currentUser.getSkillsOffered());
+                    myWanted = nonBlankSkills(currentUser.getSkillsWanted());
                 }
             } catch (Exception e) {
                 log.error("Error re-syncing user: {}", e.getMessage(), e);
             }
         }
 
-        Set<UUID> matchedUserIds = matchHistoryRepository.findAll().stream()
-                .filter(mh -> mh.getUser1Id().equals(keycloakId) || mh.getUser2Id().equals(keycloakId))
-                .map(mh -> mh.getUser1Id().equals(keycloakId) ? mh.getUser2Id() : mh.getUser1Id())
-                .collect(Collectors.toSet());
-
-        // Get all swiped users (both left and right) to exclude them from matches
-        List<UUID> allSwipedUserIds = swipeHistoryRepository.findByUserId(keycloakId)
-                .stream()
-                .map(SwipeHistory::getSwipedUserId)
-                .collect(Collectors.toList());
-
-        log.debug("Excluding {} already matched users and {} already swiped users",
-                matchedUserIds.size(), allSwipedUserIds.size());
-
         // Return empty list if no skills to match
         if (myOffered.isEmpty() && myWanted.isEmpty()) {
             log.warn("User has no skills (both offered and wanted are empty). Cannot find matches. User should add skills to their profile.");
             return Collections.emptyList();
         }
 
-        // Build list of FieldValues for each non-empty skill list
-        List<FieldValue> wantedFieldValues = myWanted.stream()
-                .map(FieldValue::of)
-                .collect(Collectors.toList());
-        List<FieldValue> offeredFieldValues = myOffered.stream()
-                .map(FieldValue::of)
-                .collect(Collectors.toList());
-
-        NativeQuery query;
-
-        // Build query based on available skills
-        if (!wantedFieldValues.isEmpty() && !offeredFieldValues.isEmpty()) {
-            // Both lists have values - use OR query
-            query = NativeQuery.builder()
-                    .withQuery(q -> q.bool(b -> b
-                            .should(s -> s.terms(t -> t
-                                    .field("skillsOffered")
-                                    .terms(v -> v.value(wantedFieldValues))))
-                            .should(s -> s.terms(t -> t
-                                    .field("skillsWanted")
-                                    .terms(v -> v.value(offeredFieldValues))))
-                            .minimumShouldMatch("1")))
-                    .withPageable(PageRequest.of(0, 200))
-                    .build();
-        } else if (!wantedFieldValues.isEmpty()) {
-            // Only wanted skills - match against others' offered skills
-            query = NativeQuery.builder()
-                    .withQuery(q -> q.terms(t -> t
-                            .field("skillsOffered")
-                            .terms(v -> v.value(wantedFieldValues))))
-                    .withPageable(PageRequest.of(0, 200))
-                    .build();
-        } else if (!offeredFieldValues.isEmpty()) {
-            // Only offered skills - match against others' wanted skills
-            query = NativeQuery.builder()
-                    .withQuery(q -> q.terms(t -> t
-                            .field("skillsWanted")
-                            .terms(v -> v.value(offeredFieldValues))))
-                    .withPageable(PageRequest.of(0, 200))
-                    .build();
-        } else {
-            // No skills - return empty (shouldn't reach here due to earlier check)
-            return Collections.emptyList();
+        List<UserDocument> approximate = approximateTopMatches(currentUser);
+        if (approximate != null) {
+            log.debug("Returning {} matches from the ANN index", approximate.size());
+            return approximate;
         }
 
+        // Once the skills are known the exclusion load and the candidate search are independent, so they
+        // run side by side and the request waits for the slower of the two, never past the deadline
+        long deadline = System.nanoTime() + lookupDeadline.toNanos();
+        CompletableFuture<ExclusionSet> exclusionsLookup =
+                CompletableFuture.supplyAsync(() -> exclusionSetStore.get(keycloakId), lookupExecutor);
+
+        // Matching runs on dictionary IDs, so case variants and aliases of a skill agree
+        int[] myWantedIds = currentUser.getSkillsWantedIds();
+        int[] myOfferedIds = currentUser.getSkillsOfferedIds();
+
+        NativeQuery query = NativeQuery.builder()
+                .withQuery(buildCandidateQuery(keycloakId, currentUser))
+                .withSort(CANDIDATE_SORT)
+                .withTrackScores(true)
+                .withPageable(PageRequest.of(0, TOP_MATCHES_SIZE))
+                .build();
+
         log.debug("Executing Elasticsearch query - Wanted skills: {}, Offered skills: {}", myWanted, myOffered);
 
+        CompletableFuture<SearchHits<UserDocument>> searchLookup =
+                CompletableFuture.supplyAsync(() -> elasticsearchOperations.search(query, UserDocument.class), lookupExecutor);
+
+        // Already matched and already swiped (both left and right) users are excluded from matches
+        ExclusionSet loadedExclusions = awaitExclusions(keycloakId, exclusionsLookup, deadline);
+        boolean exclusionsLoaded = loadedExclusions != null;
+        ExclusionSet exclusions = exclusionsLoaded ? loadedExclusions : new ExclusionSet(List.of(), List.of());
+
+        log.debug("Excluding {} already matched users and {} already swiped users",
+                exclusions.matchedCount(), exclusions.swipedCount());
+
         List<UserDocument> candidates;
+        boolean rankedByElasticsearch = true;
         try {
-            SearchHits<UserDocument> hits = elasticsearchOperations.search(query, UserDocument.class);
+            SearchHits<UserDocument> hits = await(searchLookup, deadline);
             log.debug("Elasticsearch query returned {} total results", hits.getTotalHits());
             candidates = hits.getSearchHits().stream()
                     .map(SearchHit::getContent)
                     .toList();
             log.debug("Found {} candidate matches from Elasticsearch", candidates.size());
         } catch (Exception e) {
-            log.warn("Elasticsearch is not reachable: {}. Falling back to database query.", e.getMessage());
             log.debug("Elasticsearch error details:", e);
+            rankedByElasticsearch = false;
 
-            // Fallback to database: fetch users from User Service
-            try {
-                candidates = findMatchesFromDatabase(keycloakId, myOffered, myWanted, matchedUserIds, allSwipedUserIds);
-                log.info("Database fallback returned {} potential matches", candidates.size());
-            } catch (Exception dbException) {
-                log.error("Error fetching matches from database fallback: {}", dbException.getMessage(), dbException);
+            if (!exclusionsLoaded) {
+                // Without Elasticsearch nothing else knows what the user swiped on, so nothing is served
+                log.warn("Elasticsearch is not reachable and the exclusion set for user {} is not loaded, "
+                        + "returning an empty feed", keycloakId);
                 return Collections.emptyList();
             }
+
+            if (skillIndex.size() > 0) {
+                log.warn("Elasticsearch is not reachable: {}. Falling back to in-memory skill index.", e.getMessage());
+                candidates = skillIndex.search(myWantedIds, myOfferedIds);
+                log.info("Skill index fallback returned {} potential matches", candidates.size());
+            } else {
+                log.warn("Elasticsearch is not reachable: {}. Falling back to database query.", e.getMessage());
+
+                // Fallback to database: fetch users from User Service
+                try {
+                    candidates = findMatchesFromDatabase(keycloakId, myOfferedIds, myWantedIds, exclusions);
+                    log.info("Database fallback returned {} potential matches", candidates.size());
+                } catch (Exception dbException) {
+                    log.error("Error fetching matches from database fallback: {}", dbException.getMessage(), dbException);
+                    return Collections.emptyList();
+                }
+            }
         }
 
         if (candidates.isEmpty() && currentUser != null) {
@@ -227,23 +282,352 @@ public class MatchingService {
             }
         }
 
-        UserDocument finalCurrentUser = currentUser;
-        UserDocument finalCurrentUser1 = currentUser;
-        List<UserDocument> filtered = candidates.stream()
-                .filter(u-> !u.getKeycloakId().equals(finalCurrentUser.getKeycloakId()))
-                .filter(u -> !matchedUserIds.contains(u.getKeycloakId()))
-                .filter(u -> !allSwipedUserIds.contains(u.getKeycloakId()))
-                .map(c->Map.entry(c, scoreMatch(finalCurrentUser1, c)))
-                .sorted((a,b)-> Double.compare((Double)b.getValue(), (Double)a.getValue()))
-                .limit(20)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
+        if (rankedByElasticsearch) {
+            // Hits arrive ranked and truncated; only swipes not yet visible in the exclusion document are dropped
+            List<UserDocument> ranked = candidates.stream()
+                    .filter(u -> !exclusions.contains(u.getKeycloakId()))
+                    .collect(Collectors.toList());
+            log.debug("Returning {} matches ranked by Elasticsearch", ranked.size());
+            if (exclusionsLoaded) {
+                cacheTopMatches(keycloakId, ranked);
+            }
+            return ranked;
+        }
+
+        List<UserDocument> filtered = matchScorer.topMatches(currentUser, candidates,
+                u -> !u.getKeycloakId().equals(keycloakId) && !exclusions.contains(u.getKeycloakId()),
+                TOP_MATCHES_SIZE);
 
         log.debug("Returning {} matches after filtering and scoring", filtered.size());
+        cacheTopMatches(keycloakId, filtered);
 
         return filtered;
     }
 
+    /**
+     * Moves users who already right-swiped {@code keycloakId} to the front of the feed, so a right swipe
+     * on them completes a match straight away. Likers already ranked keep their relative order and are
+     * topped up from the pending inbound likes, newest like first, at most {@code matching.feed.inbound-boost}
+     * in all. A liker is only boosted when {@link MatchScorer} gives them a positive score, so a like from
+     * someone with no skill overlap never displaces a real match. Ranking, caching and precomputation never
+     * see the boost; it is applied on the way out.
+     */
+    private List<UserDocument> boostInboundLikes(UUID keycloakId, List<UserDocument> ranked) {
+        if (maxInboundBoost == 0) {
+            return ranked;
+        }
+        try {
+            List<UUID> likers = inboundLikeStore.get(keycloakId);
+            if (likers.isEmpty()) {
+                return ranked;
+            }
+            UserDocument currentUser = skillIndex.get(keycloakId).orElseGet(() -> resolveCurrentUser(keycloakId));
+            if (currentUser == null) {
+                return ranked;
+            }
+            Set<UUID> likerIds = new HashSet<>(likers);
+            ExclusionSet exclusions = exclusionSetStore.get(keycloakId);
+            Map<UUID, UserDocument> boosted = new LinkedHashMap<>();
+            for (UserDocument candidate : ranked) {
+                if (boosted.size() < maxInboundBoost && likerIds.contains(candidate.getKeycloakId())
+                        && matchScorer.score(currentUser, candidate) > 0) {
+                    boosted.put(candidate.getKeycloakId(), candidate);
+                }
+            }
+            List<UUID> missing = new ArrayList<>();
+            for (UUID likerId : likers) {
+                if (boosted.size() + missing.size() >= maxInboundBoost) {
+                    break;
+                }
+                if (boosted.containsKey(likerId) || likerId.equals(keycloakId) || exclusions.contains(likerId)) {
+                    continue;
+                }
+                skillIndex.get(likerId).ifPresentOrElse(
+                        document -> {
+                            if (matchScorer.score(currentUser, document) > 0) {
+                                boosted.put(likerId, document);
+                            }
+                        },
+                        () -> missing.add(likerId));
+            }
+            if (!missing.isEmpty()) {
+                Map<UUID, UserDocument> found = new HashMap<>();
+                userElasticsearchRepository.findAllById(missing)
+                        .forEach(document -> found.put(document.getKeycloakId(), document));
+                // findAllById does not keep the order asked for
+                for (UUID likerId : missing) {
+                    UserDocument document = found.get(likerId);
+                    if (document != null && matchScorer.score(currentUser, document) > 0) {
+                        boosted.put(likerId, document);
+                    }
+                }
+            }
+            if (boosted.isEmpty()) {
+                return ranked;
+            }
+            List<UserDocument> result = new ArrayList<>(boosted.values());
+            ranked.stream()
+                    .filter(candidate -> !boosted.containsKey(candidate.getKeycloakId()))
+                    .limit(Math.max(0, TOP_MATCHES_SIZE - result.size()))
+                    .forEach(result::add);
+            log.debug("Boosted {} pending inbound likes for user {}", boosted.size(), keycloakId);
+            return result;
+        } catch (Exception e) {
+            log.warn("Failed to boost inbound likes for user {}: {}", keycloakId, e.getMessage());
+            return ranked;
+        }
+    }
+
+    /**
+     * Ranks through the HNSW skill-vector index when {@code matching.mode=ann} and its first build is
+     * done. Returns null otherwise, or when it finds nothing, so the exact pipeline runs.
+     */
+    private List<UserDocument> approximateTopMatches(UserDocument currentUser) {
+        if (skillVectorIndex.isEmpty() || !skillVectorIndex.get().isReady()) {
+            return null;
+        }
+        try {
+            UUID keycloakId = currentUser.getKeycloakId();
+            ExclusionSet exclusions = exclusionSetStore.get(keycloakId);
+            List<UserDocument> ranked = skillVectorIndex.get().topMatches(currentUser,
+                    u -> !u.getKeycloakId().equals(keycloakId) && !exclusions.contains(u.getKeycloakId()),
+                    TOP_MATCHES_SIZE);
+            if (ranked.isEmpty()) {
+                return null;
+            }
+            cacheTopMatches(keycloakId, ranked);
+            return ranked;
+        } catch (Exception e) {
+            log.warn("ANN lookup failed for user {}, using exact matching: {}", currentUser.getKeycloakId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private List<UserDocument> cachedTopMatches(UUID keycloakId) {
+        List<UUID> candidateIds = feedCache.get(keycloakId);
+        return candidateIds != null ? hydrate(keycloakId, candidateIds) : null;
+    }
+
+    /**
+     * Serves the last precompute run's ranking when it is recent enough. Swipes and matches made since
+     * the run are dropped by the exclusion set, and the surviving list seeds the feed cache.
+     */
+    private List<UserDocument> precomputedTopMatches(UUID keycloakId) {
+        try {
+            Optional<PrecomputedFeed> feed = precomputedFeedRepository.findById(keycloakId);
+            if (feed.isEmpty() || feed.get().getComputedAt().isBefore(Instant.now().minus(precomputedMaxAge))) {
+                return null;
+            }
+            List<UUID> candidateIds = PrecomputedFeed.decode(feed.get().getCandidateIds());
+            List<UserDocument> ranked = hydrate(keycloakId, candidateIds);
+            if (ranked != null) {
+                // The whole list, so swipes popping from the cache leave the rest of it in reserve
+                feedCache.put(keycloakId, candidateIds);
+            }
+            return ranked;
+        } catch (Exception e) {
+            log.warn("Failed to read precomputed matches for user {}: {}", keycloakId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Rebuilds ranked matches from candidate IDs: documents come from the in-memory skill index, then
+     * one multi-get for any it lacks, and users swiped on or matched since the IDs were ranked are
+     * filtered through the exclusion set. Returns null when nothing usable is left, so the full
+     * pipeline runs.
+     */
+    private List<UserDocument> hydrate(UUID keycloakId, List<UUID> candidateIds) {
+        try {
+            // Filters swipes made on this instance at once, and those made elsewhere once the set reloads
+            ExclusionSet exclusions = exclusionSetStore.get(keycloakId);
+            Map<UUID, UserDocument> documents = new HashMap<>();
+            List<UUID> missing = new ArrayList<>();
+            for (UUID candidateId : candidateIds) {
+                if (exclusions.contains(candidateId)) {
+                    continue;
+                }
+                skillIndex.get(candidateId).ifPresentOrElse(
+                        document -> documents.put(candidateId, document),
+                        () -> missing.add(candidateId));
+            }
+            if (!missing.isEmpty()) {
+                userElasticsearchRepository.findAllById(missing)
+                        .forEach(document -> documents.put(document.getKeycloakId(), document));
+            }
+            List<UserDocument> ranked = candidateIds.stream()
+                    .map(documents::get)
+                    .filter(Objects::nonNull)
+                    .limit(TOP_MATCHES_SIZE)
+                    .collect(Collectors.toList());
+            return ranked.isEmpty() ? null : ranked;
+        } catch (Exception e) {
+            log.warn("Failed to load ranked matches for user {}: {}", keycloakId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void cacheTopMatches(UUID keycloakId, List<UserDocument> ranked) {
+        feedCache.put(keycloakId, ranked.stream().map(UserDocument::getKeycloakId).toList());
+    }
+
+
+    /**
+     * Waits for the exclusion set until the deadline and returns null if it overran. The load keeps running
+     * and caches the set for the next request. This request can then only serve Elasticsearch results, which
+     * the exclusion document already filters, and does not cache them.
+     */
+    private ExclusionSet awaitExclusions(UUID keycloakId, CompletableFuture<ExclusionSet> lookup, long deadline) {
+        try {
+            return await(lookup, deadline);
+        } catch (TimeoutException e) {
+            exclusionTimeouts.increment();
+            log.warn("Exclusion set for user {} not loaded within {}", keycloakId, lookupDeadline);
+            return null;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to load exclusion set for user " + keycloakId, e);
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> lookup, long deadline) throws Exception {
+        try {
+            return lookup.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } catch (TimeoutException e) {
+            throw new TimeoutException("no answer within " + lookupDeadline);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    /**
+     * Looks the user up in Elasticsearch, then the in-memory skill index, then the User Service.
+     * Returns null when the user cannot be found anywhere.
+     */
+    UserDocument resolveCurrentUser(UUID keycloakId) {
+        // Try to find user by keycloakId (which is the @Id field)
+        UserDocument currentUser = null;
+        try {
+            currentUser = userElasticsearchRepository.findById(keycloakId)
+                    .orElse(null);
+
+            // Fallback: try the custom method if findById doesn't work
+            if (currentUser == null) {
+                currentUser = userElasticsearchRepository.getUserProfileByKeycloakId(keycloakId)
+                        .orElse(null);
+            }
+        } catch (Exception e) {
+            log.warn("Elasticsearch is not reachable when fetching current user. Will fetch from User Service: {}", e.getMessage());
+        }
+
+        // If user not found in Elasticsearch, try the in-memory skill index
+        if (currentUser == null) {
+            currentUser = skillIndex.get(keycloakId).orElse(null);
+        }
+
+        // If user not found in Elasticsearch, fetch from User Service
+        if (currentUser == null) {
+            log.info("User not found in Elasticsearch. Fetching from User Service for keycloakId: {}", keycloakId);
+            try {
+                com.bartr.matching.response.UserProfileDto userDto = userServiceClient.getUserProfileByKeycloakId(keycloakId);
+                if (userDto != null) {
+                    currentUser = convertToUserDocument(userDto);
+                    log.info("Successfully fetched user from User Service");
+                } else {
+                    log.warn("User not found in User Service for keycloakId: {}", keycloakId);
+                    return null;
+                }
+            } catch (Exception e) {
+                log.error("Error fetching user from User Service: {}", e.getMessage(), e);
+                return null;
+            }
+        }
+        return skillDictionary.ensureRegisteredIds(currentUser);
+    }
+
+    static List<String> nonBlankSkills(List<String> skills) {
+        return skills != null
+                ? skills.stream()
+                .filter(s -> s != null && !s.trim().isEmpty())
+                .collect(Collectors.toList())
+                : Collections.emptyList();
+    }
+
+    /**
+     * Skill-overlap query shared by the top-matches and feed endpoints. Every skill ID becomes a
+     * constant_score should clause, so a hit's score is the sum of 10 per skill they offer that the user
+     * wants and 5 per skill they want that the user offers - the same model as {@link MatchScorer} -
+     * and Elasticsearch returns candidates already ranked.
+     *
+     * <p>Documents indexed before they carried skill IDs are matched on the keyword skill names instead,
+     * with the same weights, until the next full sync rewrites them with IDs. Those clauses only apply to
+     * documents without the ID field, so a document is never counted twice.
+     */
+    Query buildCandidateQuery(UUID keycloakId, UserDocument currentUser) {
+        int[] myWantedIds = orEmpty(currentUser.getSkillsWantedIds());
+        int[] myOfferedIds = orEmpty(currentUser.getSkillsOfferedIds());
+        Set<String> myWantedNames = legacySkillNames(currentUser.getSkillsWanted());
+        Set<String> myOfferedNames = legacySkillNames(currentUser.getSkillsOffered());
+        // Candidates must share at least one skill; the user themselves and everyone in their
+        // exclusion document are dropped inside Elasticsearch so the page holds only eligible users
+        return Query.of(q -> q.bool(b -> {
+            for (int skillId : myWantedIds) {
+                b.should(s -> s.constantScore(c -> c
+                        .filter(f -> f.term(t -> t.field("skillsOfferedIds").value(skillId)))
+                        .boost((float) MatchScorer.OFFERED_SKILL_WEIGHT)));
+            }
+            for (int skillId : myOfferedIds) {
+                b.should(s -> s.constantScore(c -> c
+                        .filter(f -> f.term(t -> t.field("skillsWantedIds").value(skillId)))
+                        .boost((float) MatchScorer.WANTED_SKILL_WEIGHT)));
+            }
+            for (String skill : myWantedNames) {
+                b.should(s -> s.constantScore(c -> c
+                        .filter(f -> legacySkillFilter(f, "skillsOffered", "skillsOfferedIds", skill))
+                        .boost((float) MatchScorer.OFFERED_SKILL_WEIGHT)));
+            }
+            for (String skill : myOfferedNames) {
+                b.should(s -> s.constantScore(c -> c
+                        .filter(f -> legacySkillFilter(f, "skillsWanted", "skillsWantedIds", skill))
+                        .boost((float) MatchScorer.WANTED_SKILL_WEIGHT)));
+            }
+            return b
+                    .minimumShouldMatch("1")
+                    .mustNot(m -> m.term(t -> t
+                            .field("keycloakId")
+                            .value(keycloakId.toString())))
+                    .mustNot(m -> m.terms(t -> t
+                            .field("keycloakId")
+                            .terms(v -> v.lookup(l -> l
+                                    .index(UserExclusionDocument.INDEX_NAME)
+                                    .id(keycloakId.toString())
+                                    .path(UserExclusionDocument.EXCLUDED_USER_IDS)))));
+        }));
+    }
+
+    private static ObjectBuilder<Query> legacySkillFilter(Query.Builder f, String nameField, String idField, String skill) {
+        return f.bool(l -> l
+                .filter(t -> t.term(v -> v.field(nameField).value(skill)))
+                .mustNot(e -> e.exists(x -> x.field(idField))));
+    }
+
+    // Legacy documents hold the names as entered, so both the raw and the normalized spelling are tried
+    private static Set<String> legacySkillNames(List<String> skills) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String skill : nonBlankSkills(skills)) {
+            names.add(skill.trim());
+            names.add(SkillDictionary.normalize(skill));
+        }
+        return names;
+    }
+
+    private static int[] orEmpty(int[] ids) {
+        return ids != null ? ids : new int[0];
+    }
 
     /**
      * Fallback method to find matches from database when Elasticsearch is not reachable.
@@ -251,10 +635,9 @@ public class MatchingService {
      */
     private List<UserDocument> findMatchesFromDatabase(
             UUID keycloakId,
-            List<String> myOffered,
-            List<String> myWanted,
-            Set<UUID> matchedUserIds,
-            List<UUID> allSwipedUserIds) {
+            int[] myOfferedIds,
+            int[] myWantedIds,
+            ExclusionSet exclusions) {
 
         log.info("Fetching potential matches from database (User Service)");
 
@@ -268,7 +651,7 @@ public class MatchingService {
             while (hasMore) {
                 org.springframework.data.domain.Pageable pageable = PageRequest.of(page, pageSize);
                 org.springframework.data.domain.Page<com.bartr.matching.response.UserProfileDto> userPage =
-                        userServiceClient.getAllUsers(pageable);
+                        userServiceClient.getAllUsers(null, null, pageable);
 
                 if (userPage != null && userPage.hasContent()) {
                     allUsers.addAll(userPage.getContent());
@@ -286,10 +669,9 @@ public class MatchingService {
             // Convert UserProfileDto to UserDocument and filter
             List<UserDocument> candidates = allUsers.stream()
                     .filter(user -> !user.getKeycloakId().equals(keycloakId)) // Exclude current user
-                    .filter(user -> !matchedUserIds.contains(user.getKeycloakId())) // Exclude already matched
-                    .filter(user -> !allSwipedUserIds.contains(user.getKeycloakId())) // Exclude already swiped
+                    .filter(user -> !exclusions.contains(user.getKeycloakId())) // Exclude already matched or swiped
                     .map(this::convertToUserDocument)
-                    .filter(userDoc -> hasMatchingSkills(userDoc, myOffered, myWanted)) // Filter by skills
+                    .filter(userDoc -> hasMatchingSkills(userDoc, myOfferedIds, myWantedIds)) // Filter by skills
                     .collect(Collectors.toList());
 
             log.info("Found {} potential matches after filtering by skills", candidates.size());
@@ -310,6 +692,7 @@ public class MatchingService {
                 ? dto.getSkillsOffered().stream()
                 .map(com.bartr.matching.response.SkillsOfferedDto::getSkillName)
                 .filter(s -> s != null && !s.trim().isEmpty())
+                .map(skillDictionary::intern)
                 .collect(Collectors.toList())
                 : Collections.emptyList();
 
@@ -317,6 +700,7 @@ public class MatchingService {
                 ? dto.getSkillsWanted().stream()
                 .map(com.bartr.matching.response.SkillsWantedDto::getSkillName)
                 .filter(s -> s != null && !s.trim().isEmpty())
+                .map(skillDictionary::intern)
                 .collect(Collectors.toList())
                 : Collections.emptyList();
 
@@ -327,6 +711,8 @@ public class MatchingService {
                 .gender(dto.getGender())
                 .skillsOffered(skillsOffered)
                 .skillsWanted(skillsWanted)
+                .skillsOfferedIds(skillDictionary.registeredIdsOf(skillsOffered))
+                .skillsWantedIds(skillDictionary.registeredIdsOf(skillsWanted))
                 .email(dto.getEmail())
                 .userName(dto.getUserName())
                 .build();
@@ -335,60 +721,29 @@ public class MatchingService {
     /**
      * Check if a user document has matching skills with the current user's requirements.
      */
-    private boolean hasMatchingSkills(UserDocument candidate, List<String> myOffered, List<String> myWanted) {
-        if (candidate.getSkillsOffered() == null && candidate.getSkillsWanted() == null) {
-            return false;
-        }
-
-        List<String> candidateOffered = candidate.getSkillsOffered() != null
-                ? candidate.getSkillsOffered()
-                : Collections.emptyList();
-        List<String> candidateWanted = candidate.getSkillsWanted() != null
-                ? candidate.getSkillsWanted()
-                : Collections.emptyList();
-
-        // Check if candidate offers any skill I want
-        if (!myWanted.isEmpty() && !candidateOffered.isEmpty()) {
-            boolean hasMatch = myWanted.stream().anyMatch(candidateOffered::contains);
-            if (hasMatch) return true;
-        }
-
-        // Check if candidate wants any skill I offer
-        if (!myOffered.isEmpty() && !candidateWanted.isEmpty()) {
-            boolean hasMatch = myOffered.stream().anyMatch(candidateWanted::contains);
-            if (hasMatch) return true;
-        }
-
-        return false;
+    private boolean hasMatchingSkills(UserDocument candidate, int[] myOfferedIds, int[] myWantedIds) {
+        // Check if candidate offers any skill I want, or wants any skill I offer
+        return intersects(myWantedIds, candidate.getSkillsOfferedIds())
+                || intersects(myOfferedIds, candidate.getSkillsWantedIds());
     }
 
-    private Double scoreMatch(UserDocument user, UserDocument candidate) {
-        double score = 0.0;
-
-        // Handle null safety
-        List<String> userOfferedList = user.getSkillsOffered() != null ? user.getSkillsOffered() : Collections.emptyList();
-        List<String> userWantedList = user.getSkillsWanted() != null ? user.getSkillsWanted() : Collections.emptyList();
-        List<String> candidateOfferedList = candidate.getSkillsOffered() != null ? candidate.getSkillsOffered() : Collections.emptyList();
-        List<String> candidateWantedList = candidate.getSkillsWanted() != null ? candidate.getSkillsWanted() : Collections.emptyList();
-
-        Set<String> userOffered = new HashSet<>(userOfferedList);
-        Set<String> userWanted = new HashSet<>(userWantedList);
-        Set<String> candidateOffered = new HashSet<>(candidateOfferedList);
-        Set<String> candidateWanted = new HashSet<>(candidateWantedList);
-
-        for(String skill : userWanted){
-            if(candidateOffered.contains(skill)){
-                score += 10;
-            }
+    private static boolean intersects(int[] sortedA, int[] sortedB) {
+        if (sortedA == null || sortedB == null) {
+            return false;
         }
-
-        for(String skill : candidateWanted){
-            if(userOffered.contains(skill)){
-                score += 5;
+        int i = 0;
+        int j = 0;
+        while (i < sortedA.length && j < sortedB.length) {
+            if (sortedA[i] == sortedB[j]) {
+                return true;
+            }
+            if (sortedA[i] < sortedB[j]) {
+                i++;
+            } else {
+                j++;
             }
         }
-
-        return score;
+        return false;
     }
 
     @Transactional(readOnly = true)
@@ -405,35 +760,9 @@ public class MatchingService {
         }
         log.debug("Fetching match history for user: {}", keycloakId);
 
-        // Use the custom query method which is more reliable
         List<com.bartr.matching.domain.entity.MatchHistory> matches = matchHistoryRepository.findAllMatchesForUser(keycloakId);
         log.debug("Found {} matches using findAllMatchesForUser", matches.size());
 
-        // Fallback: if custom query returns nothing, try the original method
-        if (matches.isEmpty()) {
-            log.debug("No matches found with custom query. Trying findByUser1IdOrUser2Id...");
-            matches = matchHistoryRepository.findByUser1IdOrUser2Id(keycloakId, keycloakId);
-            log.debug("Found {} matches using findByUser1IdOrUser2Id", matches.size());
-        }
-
-        // If still no matches found, check all matches in database for debugging
-        if (matches.isEmpty()) {
-            log.debug("No matches found with repository methods. Checking all matches in database...");
-            List<com.bartr.matching.domain.entity.MatchHistory> allMatches = matchHistoryRepository.findAll();
-            log.debug("Total matches in database: {}", allMatches.size());
-
-            // Filter manually to see if there's a query issue
-            List<com.bartr.matching.domain.entity.MatchHistory> manualFilter = allMatches.stream()
-                    .filter(m -> m.getUser1Id().equals(keycloakId) || m.getUser2Id().equals(keycloakId))
-                    .collect(Collectors.toList());
-            log.debug("Manual filter found {} matches for user {}", manualFilter.size(), keycloakId);
-
-            if (!manualFilter.isEmpty()) {
-                log.debug("Using manually filtered matches instead");
-                matches = manualFilter;
-            }
-        }
-
         if (matches.isEmpty()) {
             log.debug("No matches found for user: {}", keycloakId);
             return Collections.emptyList();
@@ -441,22 +770,17 @@ public class MatchingService {
 
         log.debug("Processing {} matches...", matches.size());
 
+        Map<UUID, com.bartr.matching.response.UserProfileDto> partnerProfiles = fetchProfiles(matches.stream()
+                .map(match -> match.getUser1Id().equals(keycloakId) ? match.getUser2Id() : match.getUser1Id())
+                .distinct()
+                .toList());
+
         return matches.stream().map(match -> {
             // Determine the other user's ID
             UUID otherUserId = match.getUser1Id().equals(keycloakId) ? match.getUser2Id() : match.getUser1Id();
-            log.debug("Processing match: user1={}, user2={}, otherUserId={}",
-                    match.getUser1Id(), match.getUser2Id(), otherUserId);
-
-            // Fetch the other user's profile from user service
-            com.bartr.matching.response.UserProfileDto otherUserProfile = null;
-            try {
-                log.debug("Fetching user profile for: {}", otherUserId);
-                otherUserProfile = userServiceClient.getUserProfileByKeycloakId(otherUserId);
-                log.debug("Successfully fetched profile for: {} - {}",
-                        otherUserId, otherUserProfile != null ?
-                                otherUserProfile.getFirstName() + " " + otherUserProfile.getLastName() : "null");
-            } catch (Exception e) {
-                log.error("Error fetching user profile for {}: {}", otherUserId, e.getMessage(), e);
+            com.bartr.matching.response.UserProfileDto otherUserProfile = partnerProfiles.get(otherUserId);
+            if (otherUserProfile == null) {
+                log.debug("No profile found for matched user {}", otherUserId);
             }
 
             com.bartr.matching.response.MatchHistoryResponse response = com.bartr.matching.response.MatchHistoryResponse.builder()
@@ -470,6 +794,25 @@ public class MatchingService {
         }).collect(Collectors.toList());
     }
 
+    /**
+     * Hydrates profiles through the user-service batch endpoint, one call per PROFILE_BATCH_SIZE ids.
+     * A failed batch leaves its users without a profile instead of failing the whole history.
+     */
+    Map<UUID, com.bartr.matching.response.UserProfileDto> fetchProfiles(List<UUID> keycloakIds) {
+        Map<UUID, com.bartr.matching.response.UserProfileDto> profiles = new HashMap<>(keycloakIds.size() * 2);
+        for (int from = 0; from < keycloakIds.size(); from += PROFILE_BATCH_SIZE) {
+            List<UUID> batch = keycloakIds.subList(from, Math.min(from + PROFILE_BATCH_SIZE, keycloakIds.size()));
+            try {
+                for (com.bartr.matching.response.UserProfileDto profile : userServiceClient.getUserProfilesByKeycloakIds(batch)) {
+                    profiles.put(profile.getKeycloakId(), profile);
+                }
+            } catch (Exception e) {
+                log.error("Error fetching {} user profiles: {}", batch.size(), e.getMessage(), e);
+            }
+        }
+        return profiles;
+    }
+
     @Transactional
     public void unmatch(UUID user1Id, UUID user2Id) {
         if (user1Id == null || user2Id == null) {
@@ -486,26 +829,17 @@ public class MatchingService {
 
         log.info("Unmatching users: user1Id={}, user2Id={}", user1Id, user2Id);
 
-        // Try to find match in both directions (user1-user2 or user2-user1)
-        Optional<com.bartr.matching.domain.entity.MatchHistory> match1 =
-                matchHistoryRepository.findByUser1IdAndUser2Id(user1Id, user2Id);
-        Optional<com.bartr.matching.domain.entity.MatchHistory> match2 =
-                matchHistoryRepository.findByUser1IdAndUser2Id(user2Id, user1Id);
-
-        com.bartr.matching.domain.entity.MatchHistory matchToDelete = null;
-        if (match1.isPresent()) {
-            matchToDelete = match1.get();
-        } else if (match2.isPresent()) {
-            matchToDelete = match2.get();
-        }
-
-        if (matchToDelete == null) {
+        // The pair key is the same in either direction, so one delete covers both orders
+        int deleted = matchHistoryRepository.deleteByPairKey(
+                com.bartr.matching.domain.entity.MatchHistory.pairKey(user1Id, user2Id));
+        if (deleted == 0) {
             log.warn("No match found between users: user1Id={}, user2Id={}", user1Id, user2Id);
             throw new ServiceException("40400001", "No match found between the specified users",
                     ErrorConstant.CATEGORY.BV, ErrorConstant.SEVERITY.I, HttpStatus.NOT_FOUND);
         }
 
-        matchHistoryRepository.delete(matchToDelete);
+        matchAdjacencyRepository.deletePair(user1Id, user2Id);
+        exclusionSetStore.removeMatch(user1Id, user2Id);
         log.info("Successfully unmatched users: user1Id={}, user2Id={}", user1Id, user2Id);
     }
 }
@@ -0,0 +1,157 @@
+package com.bartr.matching.application.service;
+
+import com.bartr.matching.UserDocument;
+import com.bartr.matching.application.index.SkillDictionary;
+import com.bartr.matching.application.index.SkillIndex;
+import com.bartr.matching.domain.entity.SwipeHistory;
+import com.bartr.matching.domain.repositories.SwipeHistoryRepository;
+import com.bartr.matching.utility.EventProducerUtility;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Tells existing users about a profile that has just started offering a skill they want, so they hear
+ * about new candidates instead of re-polling the feed. The wanted-skill postings of the {@link SkillIndex}
+ * are the reverse index: a profile change costs one posting-list OR over its newly offered skills and one
+ * swipe_history lookup for the interested users, then one candidate_topic event per remaining user.
+ */
+@Slf4j
+@Service
+public class ReverseMatchService {
+
+    // Bound on the IN list of the already-swiped lookup
+    private static final int SWIPE_LOOKUP_CHUNK_SIZE = 500;
+
+    private final SkillIndex skillIndex;
+    private final SkillDictionary skillDictionary;
+    private final SwipeHistoryRepository swipeHistoryRepository;
+    private final EventProducerUtility eventProducerUtility;
+    private final boolean enabled;
+    private final int maxRecipients;
+
+    public ReverseMatchService(SkillIndex skillIndex,
+                               SkillDictionary skillDictionary,
+                               SwipeHistoryRepository swipeHistoryRepository,
+                               EventProducerUtility eventProducerUtility,
+                               @Value("${matching.reverse-match.enabled:true}") boolean enabled,
+                               @Value("${matching.reverse-match.max-recipients:500}") int maxRecipients) {
+        this.skillIndex = skillIndex;
+        this.skillDictionary = skillDictionary;
+        this.swipeHistoryRepository = swipeHistoryRepository;
+        this.eventProducerUtility = eventProducerUtility;
+        this.enabled = enabled;
+        this.maxRecipients = Math.max(0, maxRecipients);
+    }
+
+    /**
+     * Publishes a new-candidate event for every user who wants one of the skills {@code current} offers
+     * and {@code previous} did not, skipping users who already swiped on the profile. Only the first
+     * {@code max-recipients} interested users are alerted; everyone still finds the profile in their feed.
+     *
+     * @param previous the profile as it was indexed before this change, or null for a new user
+     */
+    public void onProfileIndexed(UserDocument previous, UserDocument current) {
+        if (!enabled || maxRecipients == 0 || current == null || current.getKeycloakId() == null) {
+            return;
+        }
+        int[] newlyOffered = newlyOffered(previous, current);
+        if (newlyOffered.length == 0) {
+            return;
+        }
+        try {
+            UUID candidateId = current.getKeycloakId();
+            Map<UUID, UserDocument> interested = new LinkedHashMap<>();
+            for (UserDocument user : skillIndex.usersWanting(newlyOffered)) {
+                if (!user.getKeycloakId().equals(candidateId)) {
+                    interested.put(user.getKeycloakId(), user);
+                }
+            }
+            removeAlreadySwiped(interested, candidateId);
+
+            int sent = 0;
+            for (UserDocument user : interested.values()) {
+                if (sent == maxRecipients) {
+                    break;
+                }
+                eventProducerUtility.sendNewCandidate(user.getKeycloakId(), candidateId,
+                        wantedSkills(user, current, newlyOffered));
+                sent++;
+            }
+            log.debug("Alerted {} of {} interested users about candidate {}", sent, interested.size(), candidateId);
+        } catch (Exception e) {
+            // Alerts are best effort; the profile itself is already indexed
+            log.warn("Failed to publish new candidate alerts for user {}: {}", current.getKeycloakId(), e.getMessage());
+        }
+    }
+
+    private void removeAlreadySwiped(Map<UUID, UserDocument> interested, UUID candidateId) {
+        List<UUID> userIds = new ArrayList<>(interested.keySet());
+        for (int from = 0; from < userIds.size(); from += SWIPE_LOOKUP_CHUNK_SIZE) {
+            List<UUID> chunk = userIds.subList(from, Math.min(userIds.size(), from + SWIPE_LOOKUP_CHUNK_SIZE));
+            for (SwipeHistory swipe : swipeHistoryRepository.findByUserIdInAndSwipedUserId(chunk, candidateId)) {
+                interested.remove(swipe.getUserId());
+            }
+        }
+    }
+
+    private int[] newlyOffered(UserDocument previous, UserDocument current) {
+        int[] offered = current.getSkillsOfferedIds();
+        if (offered == null || offered.length == 0) {
+            return new int[0];
+        }
+        int[] before = previouslyOffered(previous);
+        if (before == null) {
+            return new int[0];
+        }
+        // Both arrays are sorted and distinct, see SkillDictionary#idsOf
+        return Arrays.stream(offered)
+                .filter(id -> Arrays.binarySearch(before, id) < 0)
+                .toArray();
+    }
+
+    /**
+     * The skill IDs the previous version of the profile offered. Documents indexed before they carried ID
+     * arrays only have the names, so the IDs are derived from those. Returns null when they cannot be.
+     */
+    private int[] previouslyOffered(UserDocument previous) {
+        if (previous == null) {
+            return new int[0];
+        }
+        if (previous.getSkillsOfferedIds() != null) {
+            return previous.getSkillsOfferedIds();
+        }
+        try {
+            return skillDictionary.idsOf(previous.getSkillsOffered());
+        } catch (IllegalStateException e) {
+            // Better to miss an alert than to announce every skill the user already offered
+            log.warn("Could not resolve previous skills of user {}, skipping new candidate alerts: {}",
+                    previous.getKeycloakId(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Display names of the newly offered skills this particular user wants. The names are already
+     * registered by the time the profile is indexed, so {@link SkillDictionary#idOf} is a map lookup.
+     */
+    private List<String> wantedSkills(UserDocument user, UserDocument candidate, int[] newlyOffered) {
+        int[] wanted = user.getSkillsWantedIds();
+        List<String> skills = new ArrayList<>();
+        if (wanted == null || candidate.getSkillsOffered() == null) {
+            return skills;
+        }
+        Set<Integer> seen = new HashSet<>();
+        for (String name : candidate.getSkillsOffered()) {
+            int id = skillDictionary.idOf(name);
+            if (id >= 0 && seen.add(id)
+                    && Arrays.binarySearch(newlyOffered, id) >= 0
+                    && Arrays.binarySearch(wanted, id) >= 0) {
+                skills.add(name);
+            }
+        }
+        return skills;
+    }
+}
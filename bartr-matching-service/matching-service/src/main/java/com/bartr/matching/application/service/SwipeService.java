@@ -4,34 +4,55 @@ import com.bartr.common.core.exception.ErrorConstant;
 import com.bartr.common.core.exception.ServiceException;
 import com.bartr.matching.MatchDto;
 import com.bartr.matching.SwipeAction;
-import com.bartr.matching.UserServiceClient;
+import com.bartr.matching.application.index.ExclusionSetStore;
+import com.bartr.matching.application.index.FeedCache;
+import com.bartr.matching.application.index.InboundLikeStore;
 import com.bartr.matching.domain.entity.MatchHistory;
 import com.bartr.matching.domain.entity.SwipeHistory;
+import com.bartr.matching.domain.repositories.MatchAdjacencyRepository;
 import com.bartr.matching.domain.repositories.MatchHistoryRepository;
+import com.bartr.matching.domain.repositories.SwipeDailyCounterRepository;
 import com.bartr.matching.domain.repositories.SwipeHistoryRepository;
 import com.bartr.matching.request.SwipeRequest;
 import com.bartr.matching.response.SwipeResponse;
 import com.bartr.matching.utility.EventProducerUtility;
+import com.bartr.matching.utility.TransactionUtility;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @AllArgsConstructor
 public class SwipeService {
+    private static final int DAILY_SWIPE_LIMIT = 20;
+    private static final int MAX_SWIPE_BATCH_SIZE = 50;
+
     private SwipeHistoryRepository swipeHistoryRepository;
     private MatchHistoryRepository matchHistoryRepository;
+    private MatchAdjacencyRepository matchAdjacencyRepository;
+    private SwipeDailyCounterRepository swipeDailyCounterRepository;
     private EventProducerUtility eventProducerUtility;
-    private UserServiceClient userServiceClient;
+    private ExclusionSetStore exclusionSetStore;
+    private FeedCache feedCache;
+    private InboundLikeStore inboundLikeStore;
+    private SwipeWriteBehindQueue swipeWriteBehindQueue;
+    private TransactionUtility transactionUtility;
 
     @Transactional
     public SwipeResponse swipe(SwipeRequest request){
@@ -53,129 +74,83 @@ public class SwipeService {
         
         try {
             LocalDate today = LocalDate.now();
-            List<SwipeHistory> swipesToday = swipeHistoryRepository.findByUserIdAndSwipeDate(request.getUserId(), today);
-
-            if(swipesToday.size() >= 20){
-                throw new ServiceException("40000004", "Daily swipe limit reached", 
-                        ErrorConstant.CATEGORY.BV, ErrorConstant.SEVERITY.I, HttpStatus.BAD_REQUEST);
-            }
 
             // Check if user already swiped on this profile
             Optional<SwipeHistory> existingSwipe = swipeHistoryRepository
                     .findByUserIdAndSwipedUserId(request.getUserId(), request.getSwipedUserId());
             
-            if(existingSwipe.isPresent()){
-                // User already swiped on this profile, return existing response
-                SwipeHistory existing = existingSwipe.get();
-                if(existing.getAction().equalsIgnoreCase(SwipeAction.LEFT.getAction())){
-                    return SwipeResponse.builder()
-                            .matched(false)
-                            .matchDto(null)
-                            .build();
-                }
-                // If it was a right swipe, check for match
-                Optional<SwipeHistory> oppositeSwipe = swipeHistoryRepository
-                        .findByUserIdAndSwipedUserId(request.getSwipedUserId(), request.getUserId());
-                if(oppositeSwipe.isPresent() && oppositeSwipe.get().getAction().equalsIgnoreCase(SwipeAction.RIGHT.getAction())){
-                    if(!alreadyMatched(request.getUserId(), request.getSwipedUserId())){
-                        // Create match history
-                        MatchHistory matchHistory = MatchHistory.builder()
-                                .matchedDate(LocalDate.now())
-                                .user1Id(request.getUserId())
-                                .user2Id(request.getSwipedUserId())
-                                .build();
-                        matchHistoryRepository.save(matchHistory);
-                        try {
-                            eventProducerUtility.sendMatchEvent(request.getUserId(), request.getSwipedUserId());
-                        } catch (Exception e) {
-                            log.warn("Failed to send match event to Kafka: {}", e.getMessage());
-                            // Don't fail the swipe if event sending fails
-                        }
-                        
-                        return SwipeResponse.builder()
-                                .matched(true)
-                                .matchDto(MatchDto.builder()
-                                        .matchedDate(LocalDate.now())
-                                        .user1Id(request.getUserId())
-                                        .user2Id(request.getSwipedUserId())
-                                        .build())
-                                .build();
-                    }
-                }
+            if (existingSwipe.isEmpty()
+                    && swipeWriteBehindQueue.isPending(request.getUserId(), request.getSwipedUserId())) {
+                // A left swipe still waiting to be written
                 return SwipeResponse.builder()
                         .matched(false)
                         .matchDto(null)
                         .build();
             }
 
+            if(existingSwipe.isPresent()){
+                // User already swiped on this profile, return existing response
+                return existingSwipeResponse(existingSwipe.get());
+            }
+
             SwipeHistory history = new SwipeHistory();
             history.setSwipeDate(today);
-            history.setAction(request.getAction());
+            // Stored upper-case so the inbound-likes index is matched exactly
+            history.setAction(request.getAction().trim().toUpperCase(Locale.ROOT));
             history.setUserId(request.getUserId());
             history.setSwipedUserId(request.getSwipedUserId());
+            boolean leftSwipe = request.getAction().equalsIgnoreCase(SwipeAction.LEFT.getAction());
 
-            try {
-                swipeHistoryRepository.save(history);
-            } catch (DataIntegrityViolationException e) {
-                // Handle duplicate key violation - this should only happen if user tries to swipe on same person twice
-                // (due to unique constraint on userId + swipedUserId)
-                log.warn("Duplicate swipe detected (user already swiped on this person): userId={}, swipedUserId={}", 
+            // Right swipes are inserted straight away so a duplicate or racing swipe is seen here rather
+            // than failing the commit after match detection; left swipes are too when the queue is full
+            boolean recorded = leftSwipe
+                    ? writeLeftSwipe(history)
+                    : swipeHistoryRepository.insertIfAbsent(history.getUserId(), history.getSwipedUserId(),
+                    history.getAction(), history.getSwipeDate()).isPresent();
+            if (!recorded) {
+                log.info("Swipe already recorded by a concurrent request: userId={}, swipedUserId={}",
                         request.getUserId(), request.getSwipedUserId());
-                // Check if the swipe was actually saved by another concurrent request
-                Optional<SwipeHistory> savedSwipe = swipeHistoryRepository
-                        .findByUserIdAndSwipedUserId(request.getUserId(), request.getSwipedUserId());
-                if (savedSwipe.isPresent()) {
-                    // Swipe already exists (concurrent request or duplicate), use existing record
-                    history = savedSwipe.get();
-                    log.info("Using existing swipe record for userId={}, swipedUserId={}", 
-                            request.getUserId(), request.getSwipedUserId());
-                } else {
-                    // This shouldn't happen with correct constraint, but handle gracefully
-                    log.error("Unexpected constraint violation. Error: {}", e.getMessage());
-                    // Return a response as if the swipe was processed (to prevent UI errors)
-                    return SwipeResponse.builder()
-                            .matched(false)
-                            .matchDto(null)
-                            .build();
-                }
+                return swipeHistoryRepository.findByUserIdAndSwipedUserId(request.getUserId(), request.getSwipedUserId())
+                        .map(this::existingSwipeResponse)
+                        .orElseGet(() -> SwipeResponse.builder()
+                                .matched(false)
+                                .matchDto(null)
+                                .build());
             }
 
-            if(request.getAction().equalsIgnoreCase(SwipeAction.LEFT.getAction())){
+            // Only a new swipe counts towards the limit; the counter rolls back with the swipe
+            if (swipeDailyCounterRepository.tryIncrement(request.getUserId(), today, DAILY_SWIPE_LIMIT) == 0) {
+                throw new ServiceException("40000004", "Daily swipe limit reached", 
+                        ErrorConstant.CATEGORY.BV, ErrorConstant.SEVERITY.I, HttpStatus.BAD_REQUEST);
+            }
+
+            if (leftSwipe) {
+                recordSwipe(request.getUserId(), request.getSwipedUserId(), false);
                 return SwipeResponse.builder()
                         .matched(false)
                         .matchDto(null)
                         .build();
             }
 
-            // Give 1 credit for swiping right
-            try {
-                userServiceClient.addCredits(request.getUserId(), 1);
-                log.info("Added 1 credit to user {} for swiping right", request.getUserId());
-            } catch (Exception e) {
-                log.warn("Failed to add credits for swipe: {}", e.getMessage());
-                // Don't fail the swipe if credits update fails
-            }
+            recordSwipe(request.getUserId(), request.getSwipedUserId(), true);
+
+            // Give 1 credit for swiping right; user-service applies it from credit_topic
+            transactionUtility.afterCommit(() -> {
+                try {
+                    eventProducerUtility.sendCreditAwarded(request.getUserId(), 1, "RIGHT_SWIPE");
+                } catch (Exception e) {
+                    log.warn("Failed to publish credits for swipe: {}", e.getMessage());
+                }
+            });
 
             Optional<SwipeHistory> oppositeSwipe = swipeHistoryRepository
                     .findByUserIdAndSwipedUserId(request.getSwipedUserId(), request.getUserId());
 
             if(oppositeSwipe.isPresent() && oppositeSwipe.get().getAction().equalsIgnoreCase(SwipeAction.RIGHT.getAction())){
 
-                if(!alreadyMatched(request.getSwipedUserId(), request.getUserId())){
-
-                    MatchHistory matchHistory = MatchHistory.builder()
-                            .matchedDate(LocalDate.now())
-                            .user1Id(request.getUserId())
-                            .user2Id(request.getSwipedUserId())
-                            .build();
-                    matchHistoryRepository.save(matchHistory);
+                if(createMatch(request.getUserId(), request.getSwipedUserId())){
+                    exclusionSetStore.recordMatch(request.getUserId(), request.getSwipedUserId());
 
-                    try {
-                        eventProducerUtility.sendMatchEvent(request.getUserId(), request.getSwipedUserId());
-                    } catch (Exception e) {
-                        log.warn("Failed to send match event to Kafka: {}", e.getMessage());
-                        // Don't fail the swipe if event sending fails
-                    }
 
                     return SwipeResponse.builder()
                             .matchDto(MatchDto.builder()
@@ -201,9 +176,259 @@ public class SwipeService {
         }
     }
 
-    private boolean alreadyMatched(UUID user1Id, UUID user2Id) {
-        // Check if match exists in either direction (user1-user2 or user2-user1)
-        return matchHistoryRepository.existsByUser1IdAndUser2Id(user1Id, user2Id) ||
-                matchHistoryRepository.existsByUser1IdAndUser2Id(user2Id, user1Id);
+    /**
+     * Applies an ordered batch of swipes by one user in a single transaction. Existing swipes, reciprocal
+     * right swipes and the daily limit are each resolved with one query for the whole batch; swipes past
+     * the limit are skipped and reported on their own response rather than failing the batch.
+     */
+    @Transactional
+    public List<SwipeResponse> swipeBatch(List<SwipeRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new ServiceException("40000001", "Swipe batch cannot be empty", 
+                    ErrorConstant.CATEGORY.BV, ErrorConstant.SEVERITY.I, HttpStatus.BAD_REQUEST);
+        }
+        if (requests.size() > MAX_SWIPE_BATCH_SIZE) {
+            throw new ServiceException("40000007", "Swipe batch cannot exceed " + MAX_SWIPE_BATCH_SIZE + " swipes", 
+                    ErrorConstant.CATEGORY.BV, ErrorConstant.SEVERITY.I, HttpStatus.BAD_REQUEST);
+        }
+        UUID userId = requests.get(0) != null ? requests.get(0).getUserId() : null;
+        for (SwipeRequest request : requests) {
+            if (request == null) {
+                throw new ServiceException("40000001", "SwipeRequest cannot be null", 
+                        ErrorConstant.CATEGORY.BV, ErrorConstant.SEVERITY.I, HttpStatus.BAD_REQUEST);
+            }
+            if (request.getUserId() == null || request.getSwipedUserId() == null) {
+                throw new ServiceException("40000002", "UserId and SwipedUserId cannot be null", 
+                        ErrorConstant.CATEGORY.BV, ErrorConstant.SEVERITY.I, HttpStatus.BAD_REQUEST);
+            }
+            if (request.getAction() == null || request.getAction().trim().isEmpty()) {
+                throw new ServiceException("40000003", "Action cannot be null or empty", 
+                        ErrorConstant.CATEGORY.BV, ErrorConstant.SEVERITY.I, HttpStatus.BAD_REQUEST);
+            }
+            if (!request.getUserId().equals(userId)) {
+                throw new ServiceException("40000007", "All swipes in a batch must be made by the same user", 
+                        ErrorConstant.CATEGORY.BV, ErrorConstant.SEVERITY.I, HttpStatus.BAD_REQUEST);
+            }
+        }
+
+        log.info("Processing batch of {} swipes for userId: {}", requests.size(), userId);
+
+        try {
+            LocalDate today = LocalDate.now();
+            Set<UUID> swipedUserIds = requests.stream()
+                    .map(SwipeRequest::getSwipedUserId)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+
+            // Final action of this user on each profile, starting from what is already recorded
+            Map<UUID, String> actions = swipeHistoryRepository.findByUserIdAndSwipedUserIdIn(userId, swipedUserIds)
+                    .stream()
+                    .collect(Collectors.toMap(SwipeHistory::getSwipedUserId, SwipeHistory::getAction, (a, b) -> a));
+            Set<UUID> likedBy = swipeHistoryRepository.findByUserIdInAndSwipedUserId(swipedUserIds, userId)
+                    .stream()
+                    .filter(swipe -> swipe.getAction().equalsIgnoreCase(SwipeAction.RIGHT.getAction()))
+                    .map(SwipeHistory::getUserId)
+                    .collect(Collectors.toSet());
+
+            // The first swipe on each profile not already swiped on, in request order
+            Map<UUID, SwipeRequest> newSwipes = new LinkedHashMap<>();
+            for (SwipeRequest request : requests) {
+                UUID swipedUserId = request.getSwipedUserId();
+                if (actions.containsKey(swipedUserId)) {
+                    continue;
+                }
+                if (swipeWriteBehindQueue.isPending(userId, swipedUserId)) {
+                    actions.put(swipedUserId, SwipeAction.LEFT.getAction());
+                    continue;
+                }
+                newSwipes.putIfAbsent(swipedUserId, request);
+            }
+
+            int accepted = reserveSwipes(userId, today, newSwipes.size());
+            Set<UUID> overLimit = new HashSet<>();
+            List<SwipeHistory> leftSwipes = new ArrayList<>();
+            List<SwipeHistory> rightSwipes = new ArrayList<>();
+            for (SwipeRequest request : newSwipes.values()) {
+                if (accepted-- <= 0) {
+                    overLimit.add(request.getSwipedUserId());
+                    continue;
+                }
+                SwipeHistory history = new SwipeHistory();
+                history.setSwipeDate(today);
+                history.setAction(request.getAction().trim().toUpperCase(Locale.ROOT));
+                history.setUserId(userId);
+                history.setSwipedUserId(request.getSwipedUserId());
+                actions.put(request.getSwipedUserId(), request.getAction());
+                if (request.getAction().equalsIgnoreCase(SwipeAction.LEFT.getAction())) {
+                    leftSwipes.add(history);
+                } else {
+                    rightSwipes.add(history);
+                }
+            }
+
+            // Inserted one by one so a swipe a concurrent request already recorded is skipped, keeping its
+            // recorded action, instead of failing the whole batch at commit
+            List<SwipeHistory> skipped = new ArrayList<>();
+            for (SwipeHistory swipe : leftSwipes) {
+                if (!writeLeftSwipe(swipe)) {
+                    skipped.add(swipe);
+                }
+            }
+            for (SwipeHistory swipe : rightSwipes) {
+                if (swipeHistoryRepository.insertIfAbsent(userId, swipe.getSwipedUserId(),
+                        swipe.getAction(), swipe.getSwipeDate()).isEmpty()) {
+                    skipped.add(swipe);
+                }
+            }
+            if (!skipped.isEmpty()) {
+                leftSwipes.removeAll(skipped);
+                rightSwipes.removeAll(skipped);
+                // The other request counted these swipes, so their reservations are given back
+                swipeDailyCounterRepository.addSwipes(userId, today, -skipped.size());
+                for (SwipeHistory swipe : skipped) {
+                    swipeHistoryRepository.findByUserIdAndSwipedUserId(userId, swipe.getSwipedUserId())
+                            .ifPresent(existing -> actions.put(existing.getSwipedUserId(), existing.getAction()));
+                }
+            }
+
+            leftSwipes.forEach(swipe -> recordSwipe(userId, swipe.getSwipedUserId(), false));
+            if (!rightSwipes.isEmpty()) {
+                rightSwipes.forEach(swipe -> recordSwipe(userId, swipe.getSwipedUserId(), true));
+
+                // 1 credit per right swipe, published as a single award for the batch
+                int credits = rightSwipes.size();
+                transactionUtility.afterCommit(() -> {
+                    try {
+                        eventProducerUtility.sendCreditAwarded(userId, credits, "RIGHT_SWIPE");
+                    } catch (Exception e) {
+                        log.warn("Failed to publish credits for swipe batch: {}", e.getMessage());
+                    }
+                });
+            }
+
+            Set<UUID> matched = new HashSet<>();
+            for (UUID swipedUserId : swipedUserIds) {
+                String action = actions.get(swipedUserId);
+                if (action != null && action.equalsIgnoreCase(SwipeAction.RIGHT.getAction())
+                        && likedBy.contains(swipedUserId) && createMatch(userId, swipedUserId)) {
+                    exclusionSetStore.recordMatch(userId, swipedUserId);
+                    matched.add(swipedUserId);
+                }
+            }
+
+            // A profile swiped on twice in one batch reports the match only on its first swipe
+            List<SwipeResponse> responses = new ArrayList<>(requests.size());
+            for (SwipeRequest request : requests) {
+                UUID swipedUserId = request.getSwipedUserId();
+                if (overLimit.contains(swipedUserId)) {
+                    responses.add(SwipeResponse.builder()
+                            .matched(false)
+                            .matchDto(null)
+                            .error("Daily swipe limit reached")
+                            .build());
+                } else if (matched.remove(swipedUserId)) {
+                    responses.add(SwipeResponse.builder()
+                            .matched(true)
+                            .matchDto(MatchDto.builder()
+                                    .matchedDate(today)
+                                    .user1Id(userId)
+                                    .user2Id(swipedUserId)
+                                    .build())
+                            .build());
+                } else {
+                    responses.add(SwipeResponse.builder()
+                            .matched(false)
+                            .matchDto(null)
+                            .build());
+                }
+            }
+            return responses;
+        } catch (ServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error processing swipe batch: {}", e.getMessage(), e);
+            throw new ServiceException("50000001", "Failed to process swipe batch: " + e.getMessage(), 
+                    ErrorConstant.CATEGORY.TS, ErrorConstant.SEVERITY.C, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Response for a profile the user had already swiped on. A right swipe still reports the match if the
+     * other user has liked back since and the pair is not matched yet.
+     */
+    private SwipeResponse existingSwipeResponse(SwipeHistory existing) {
+        if (existing.getAction().equalsIgnoreCase(SwipeAction.RIGHT.getAction())) {
+            Optional<SwipeHistory> oppositeSwipe = swipeHistoryRepository
+                    .findByUserIdAndSwipedUserId(existing.getSwipedUserId(), existing.getUserId());
+            if (oppositeSwipe.isPresent() && oppositeSwipe.get().getAction().equalsIgnoreCase(SwipeAction.RIGHT.getAction())
+                    && createMatch(existing.getUserId(), existing.getSwipedUserId())) {
+                exclusionSetStore.recordMatch(existing.getUserId(), existing.getSwipedUserId());
+                return SwipeResponse.builder()
+                        .matched(true)
+                        .matchDto(MatchDto.builder()
+                                .matchedDate(LocalDate.now())
+                                .user1Id(existing.getUserId())
+                                .user2Id(existing.getSwipedUserId())
+                                .build())
+                        .build();
+            }
+        }
+        return SwipeResponse.builder()
+                .matched(false)
+                .matchDto(null)
+                .build();
+    }
+
+    /**
+     * Hands a left swipe to the write-behind queue once the request commits. When the queue is full the swipe
+     * is inserted in this transaction instead, so a failed write fails the request rather than surfacing after
+     * the swipe has committed. Returns false only when that insert finds the swipe already recorded.
+     */
+    private boolean writeLeftSwipe(SwipeHistory history) {
+        if (swipeWriteBehindQueue.isFull()) {
+            return swipeHistoryRepository.insertIfAbsent(history.getUserId(), history.getSwipedUserId(),
+                    history.getAction(), history.getSwipeDate()).isPresent();
+        }
+        transactionUtility.afterCommit(() -> swipeWriteBehindQueue.submit(history));
+        return true;
+    }
+
+    // Keeps the exclusion set, the inbound likes and the user's cached feed in step with the swipe
+    private void recordSwipe(UUID userId, UUID swipedUserId, boolean rightSwipe) {
+        exclusionSetStore.recordSwipe(userId, swipedUserId);
+        inboundLikeStore.recordSwipe(userId, swipedUserId, rightSwipe);
+        transactionUtility.afterCommit(() -> feedCache.consume(userId, swipedUserId));
+    }
+
+    /**
+     * Counts up to {@code requested} swipes towards today's limit and returns how many fit.
+     */
+    private int reserveSwipes(UUID userId, LocalDate today, int requested) {
+        if (requested == 0) {
+            return 0;
+        }
+        int used = swipeDailyCounterRepository.lockCount(userId, today);
+        int accepted = Math.min(requested, Math.max(0, DAILY_SWIPE_LIMIT - used));
+        if (accepted > 0) {
+            swipeDailyCounterRepository.addSwipes(userId, today, accepted);
+        }
+        return accepted;
+    }
+
+    /**
+     * Records the match unless the pair is already matched, in either direction. The insert itself is the
+     * existence check, so two concurrent mutual swipes still produce a single match.
+     */
+    private boolean createMatch(UUID user1Id, UUID user2Id) {
+        LocalDate matchedDate = LocalDate.now();
+        String pairKey = MatchHistory.pairKey(user1Id, user2Id);
+        if (matchHistoryRepository.insertIfAbsent(user1Id, user2Id, matchedDate, pairKey) == 0) {
+            return false;
+        }
+        long matchId = matchHistoryRepository.findIdByPairKey(pairKey)
+                .orElseThrow(() -> new IllegalStateException("Match " + pairKey + " missing after insert"));
+        matchAdjacencyRepository.insertPair(user1Id, user2Id, matchId, matchedDate);
+        // Outbox row in the same transaction: published only if the match commits, and never on this thread
+        eventProducerUtility.sendMatchEvent(user1Id, user2Id);
+        return true;
     }
 }
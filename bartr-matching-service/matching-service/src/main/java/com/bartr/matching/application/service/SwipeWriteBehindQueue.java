@@ -0,0 +1,215 @@
+package com.bartr.matching.application.service;
+
+import com.bartr.matching.application.index.ExclusionSetStore;
+import com.bartr.matching.domain.entity.SwipeHistory;
+import com.bartr.matching.domain.repositories.SwipeHistoryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind for left swipes, which nothing reads back on the swipe path. Swipes are queued after the
+ * request commits and a single writer group-commits them, so Hibernate sends them as batched multi-row
+ * inserts with ids from the pooled sequence. Right swipes never come through here: match detection has
+ * to see them in the database straight away. When the queue is full the caller writes the swipe in its own
+ * transaction instead, see {@link #isFull()}. A batch that fails for any reason other than a constraint is
+ * kept and retried with backoff, and a swipe stays pending until it has been written.
+ *
+ * <p>On this instance a queued swipe is never lost from the feed: {@link ExclusionSetStore} merges the
+ * pending swipes into every set it loads, and the writer hands written swipes to the store as well. Other
+ * instances only see a left swipe once it is written and their copy of the user's set is reloaded, which
+ * is bounded by {@code matching.exclusions.ttl}; until then the Elasticsearch exclusion document covers it.
+ */
+@Slf4j
+@Component
+public class SwipeWriteBehindQueue {
+
+    private final SwipeHistoryRepository swipeHistoryRepository;
+    // The store reads this queue's pending swipes, so it is resolved lazily
+    private final ObjectProvider<ExclusionSetStore> exclusionSetStore;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<SwipeHistory> queue = new LinkedBlockingQueue<>();
+    private final int capacity;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration maxRetryDelay;
+    // Swipes the writer has taken off the queue and not yet written, retried until they are
+    private final List<SwipeHistory> batch = new ArrayList<>();
+    // Swiped user IDs per user, queued and not yet written, so a repeated swipe is still recognised
+    // before it reaches the table
+    private final Map<UUID, Set<UUID>> pending = new ConcurrentHashMap<>();
+
+    private volatile boolean running = true;
+    private Thread writer;
+
+    public SwipeWriteBehindQueue(SwipeHistoryRepository swipeHistoryRepository,
+                                 ObjectProvider<ExclusionSetStore> exclusionSetStore,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${matching.swipe.write-behind.capacity:10000}") int capacity,
+                                 @Value("${matching.swipe.write-behind.batch-size:500}") int batchSize,
+                                 @Value("${matching.swipe.write-behind.flush-interval:200ms}") Duration flushInterval,
+                                 @Value("${matching.swipe.write-behind.max-retry-delay:30s}") Duration maxRetryDelay) {
+        this.swipeHistoryRepository = swipeHistoryRepository;
+        this.exclusionSetStore = exclusionSetStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Also used from after-commit callbacks, where joining the finished request transaction would never commit
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.maxRetryDelay = maxRetryDelay;
+    }
+
+    @PostConstruct
+    public void start() {
+        try {
+            swipeHistoryRepository.alignIdSequence();
+        } catch (Exception e) {
+            log.warn("Failed to align swipe_history_seq with existing ids: {}", e.getMessage());
+        }
+        writer = Thread.ofPlatform().daemon().name("swipe-write-behind").start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        // Anything the writer did not get to is written before the context closes
+        List<SwipeHistory> remaining = new ArrayList<>(batch);
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            List<SwipeHistory> failed = write(remaining);
+            if (!failed.isEmpty()) {
+                log.error("Lost {} left swipes on shutdown, the database is unavailable", failed.size());
+            }
+        }
+    }
+
+    /**
+     * True when the queue holds {@code capacity} swipes or more. Callers check this inside their transaction
+     * and write the swipe themselves when it is full, so a failed write fails their request.
+     */
+    public boolean isFull() {
+        return queue.size() >= capacity;
+    }
+
+    /**
+     * Queues the swipe. Never writes on the calling thread, which is usually an after-commit callback.
+     */
+    public void submit(SwipeHistory swipe) {
+        pending.computeIfAbsent(swipe.getUserId(), id -> ConcurrentHashMap.newKeySet()).add(swipe.getSwipedUserId());
+        queue.add(swipe);
+    }
+
+    public boolean isPending(UUID userId, UUID swipedUserId) {
+        Set<UUID> swiped = pending.get(userId);
+        return swiped != null && swiped.contains(swipedUserId);
+    }
+
+    /**
+     * The profiles the user has swiped left on that are still waiting to be written.
+     */
+    public List<UUID> pendingSwipedUserIds(UUID userId) {
+        Set<UUID> swiped = pending.get(userId);
+        return swiped == null ? List.of() : List.copyOf(swiped);
+    }
+
+    private void run() {
+        long retryDelayMillis = 0;
+        while (running) {
+            try {
+                if (retryDelayMillis > 0) {
+                    Thread.sleep(retryDelayMillis);
+                }
+                if (batch.isEmpty()) {
+                    SwipeHistory first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                }
+                queue.drainTo(batch, batchSize - batch.size());
+                List<SwipeHistory> failed = write(batch);
+                batch.retainAll(failed);
+                retryDelayMillis = failed.isEmpty() ? 0 : nextRetryDelay(retryDelayMillis);
+            } catch (InterruptedException e) {
+                // stop() writes the batch in hand together with the rest of the queue
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Swipe write-behind failed for {} swipes: {}", batch.size(), e.getMessage(), e);
+                retryDelayMillis = nextRetryDelay(retryDelayMillis);
+            }
+        }
+    }
+
+    private long nextRetryDelay(long previousMillis) {
+        long next = previousMillis == 0 ? flushInterval.toMillis() : previousMillis * 2;
+        return Math.min(Math.max(1, next), maxRetryDelay.toMillis());
+    }
+
+    /**
+     * Writes the batch and returns the swipes that could not be written and have to be retried. Only the
+     * swipes that reached the table, or were already there, leave {@code pending}.
+     */
+    private List<SwipeHistory> write(List<SwipeHistory> batch) {
+        List<SwipeHistory> failed = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> swipeHistoryRepository.saveAll(batch));
+        } catch (DataIntegrityViolationException e) {
+            // A duplicate fails the whole batch, so fall back to one transaction per swipe and skip the duplicates
+            log.warn("Batch of {} swipes hit a constraint, writing them one by one", batch.size());
+            for (SwipeHistory swipe : batch) {
+                swipe.setId(0);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> swipeHistoryRepository.save(swipe));
+                } catch (DataIntegrityViolationException duplicate) {
+                    log.debug("Skipping duplicate swipe userId={}, swipedUserId={}",
+                            swipe.getUserId(), swipe.getSwipedUserId());
+                } catch (Exception retry) {
+                    failed.add(swipe);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to write {} swipes, retrying: {}", batch.size(), e.getMessage());
+            failed.addAll(batch);
+        }
+        // Ids assigned in a rolled back transaction are not in the table
+        failed.forEach(swipe -> swipe.setId(0));
+
+        ExclusionSetStore store = exclusionSetStore.getIfAvailable();
+        for (SwipeHistory swipe : batch) {
+            if (failed.contains(swipe)) {
+                continue;
+            }
+            // Covers a set loaded from the table just before this write and merged with pending just after
+            if (store != null) {
+                store.recordWrittenSwipe(swipe.getUserId(), swipe.getSwipedUserId());
+            }
+            pending.computeIfPresent(swipe.getUserId(), (userId, swiped) -> {
+                swiped.remove(swipe.getSwipedUserId());
+                return swiped.isEmpty() ? null : swiped;
+            });
+        }
+        return failed;
+    }
+}
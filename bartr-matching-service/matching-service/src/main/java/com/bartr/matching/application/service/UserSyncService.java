@@ -1,65 +1,325 @@
 package com.bartr.matching.application.service;
 
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._helpers.bulk.BulkIngester;
+import co.elastic.clients.elasticsearch._helpers.bulk.BulkListener;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
 import com.bartr.common.core.exception.ErrorConstant;
 import com.bartr.common.core.exception.ServiceException;
 import com.bartr.matching.UserDocument;
 import com.bartr.matching.UserServiceClient;
+import com.bartr.matching.application.index.FeedCache;
+import com.bartr.matching.application.index.SkillDictionary;
+import com.bartr.matching.application.index.SkillIndex;
+import com.bartr.matching.domain.entity.UserSyncCheckpoint;
+import com.bartr.matching.domain.repositories.DeletedUserRepository;
 import com.bartr.matching.domain.repositories.UserElasticsearchRepository;
+import com.bartr.matching.domain.repositories.PrecomputedFeedRepository;
+import com.bartr.matching.domain.repositories.UserSyncCheckpointRepository;
 import com.bartr.matching.response.SkillsOfferedDto;
 import com.bartr.matching.response.SkillsWantedDto;
 import com.bartr.matching.response.UserProfileDto;
-import lombok.AllArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Full and incremental sync of user profiles into the skill index and users_index.
+ *
+ * <p>A full sync splits the profile ids up to the current largest one into disjoint windows of
+ * {@code matching.sync.page-size} ids, each fetched with a single {@code afterId}/{@code untilId} request.
+ * Unlike offset pages, a window cannot shift when a profile is deleted mid-sync. Windows are fetched
+ * concurrently, bounded by {@code matching.sync.parallelism}, and their documents are streamed into an
+ * Elasticsearch bulk ingester that flushes on size or time. Once a window and every window before it have
+ * been acknowledged, its upper bound is saved as the checkpoint, so an interrupted sync resumes after the
+ * highest contiguous completed id instead of starting over. Profiles created or deleted while a sync runs
+ * are picked up by the profile events.
+ *
+ * <p>The checkpoint is shared by every instance, but the skill index is not: a resumed sync may be running
+ * on an instance that never saw the windows before the checkpoint. Unless the skill index was restored
+ * from a snapshot written after the checkpoint, those windows are fetched again into the skill index only,
+ * alongside the Elasticsearch ingest of the rest.
+ */
 @Slf4j
 @Service
-@AllArgsConstructor
 public class UserSyncService {
 
-    private UserServiceClient userServiceClient;
-    private UserElasticsearchRepository userElasticsearchRepository;
+    private static final String CHECKPOINT_NAME = "users";
+
+    private final UserServiceClient userServiceClient;
+    private final UserElasticsearchRepository userElasticsearchRepository;
+    private final SkillIndex skillIndex;
+    private final SkillDictionary skillDictionary;
+    private final ExclusionIndexService exclusionIndexService;
+    private final ElasticsearchClient elasticsearchClient;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final UserSyncCheckpointRepository userSyncCheckpointRepository;
+    private final FeedCache feedCache;
+    private final PrecomputedFeedRepository precomputedFeedRepository;
+    private final ReverseMatchService reverseMatchService;
+    private final DeletedUserRepository deletedUserRepository;
+    private final int pageSize;
+    private final int parallelism;
+    private final int bulkMaxOperations;
+    private final DataSize bulkMaxSize;
+    private final int bulkMaxConcurrentRequests;
+    private final Duration bulkFlushInterval;
+
+    private final Counter syncedDocuments;
+    private final Counter failedDocuments;
+    private final Timer syncTimer;
+    // Documents handed to the bulk ingester and not yet acknowledged
+    private final AtomicLong pendingDocuments = new AtomicLong();
+    // Pages that are fetched but not yet covered by the checkpoint
+    private final AtomicInteger pagesAheadOfCheckpoint = new AtomicInteger();
+    private volatile double throughput;
+
+    public UserSyncService(UserServiceClient userServiceClient,
+                           UserElasticsearchRepository userElasticsearchRepository,
+                           SkillIndex skillIndex,
+                           SkillDictionary skillDictionary,
+                           ExclusionIndexService exclusionIndexService,
+                           ElasticsearchClient elasticsearchClient,
+                           ElasticsearchOperations elasticsearchOperations,
+                           UserSyncCheckpointRepository userSyncCheckpointRepository,
+                           FeedCache feedCache,
+                           PrecomputedFeedRepository precomputedFeedRepository,
+                           ReverseMatchService reverseMatchService,
+                           DeletedUserRepository deletedUserRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${matching.sync.page-size:100}") int pageSize,
+                           @Value("${matching.sync.parallelism:4}") int parallelism,
+                           @Value("${matching.sync.bulk.max-operations:1000}") int bulkMaxOperations,
+                           @Value("${matching.sync.bulk.max-size:5MB}") DataSize bulkMaxSize,
+                           @Value("${matching.sync.bulk.max-concurrent-requests:2}") int bulkMaxConcurrentRequests,
+                           @Value("${matching.sync.bulk.flush-interval:1s}") Duration bulkFlushInterval) {
+        this.userServiceClient = userServiceClient;
+        this.userElasticsearchRepository = userElasticsearchRepository;
+        this.skillIndex = skillIndex;
+        this.skillDictionary = skillDictionary;
+        this.exclusionIndexService = exclusionIndexService;
+        this.elasticsearchClient = elasticsearchClient;
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.userSyncCheckpointRepository = userSyncCheckpointRepository;
+        this.feedCache = feedCache;
+        this.precomputedFeedRepository = precomputedFeedRepository;
+        this.reverseMatchService = reverseMatchService;
+        this.deletedUserRepository = deletedUserRepository;
+        this.pageSize = pageSize;
+        this.parallelism = Math.max(1, parallelism);
+        this.bulkMaxOperations = bulkMaxOperations;
+        this.bulkMaxSize = bulkMaxSize;
+        this.bulkMaxConcurrentRequests = bulkMaxConcurrentRequests;
+        this.bulkFlushInterval = bulkFlushInterval;
+
+        this.syncedDocuments = Counter.builder("matching.sync.documents")
+                .description("Documents acknowledged by Elasticsearch during full syncs")
+                .tag("result", "success")
+                .register(meterRegistry);
+        this.failedDocuments = Counter.builder("matching.sync.documents")
+                .description("Documents rejected by Elasticsearch or lost to failed bulk requests during full syncs")
+                .tag("result", "failure")
+                .register(meterRegistry);
+        this.syncTimer = Timer.builder("matching.sync.duration")
+                .description("Duration of full user syncs")
+                .register(meterRegistry);
+        Gauge.builder("matching.sync.throughput", () -> throughput)
+                .description("Documents per second of the running or last full sync")
+                .baseUnit("documents/s")
+                .register(meterRegistry);
+        Gauge.builder("matching.sync.pending.documents", pendingDocuments, AtomicLong::get)
+                .description("Documents handed to the bulk ingester and not yet acknowledged")
+                .register(meterRegistry);
+        Gauge.builder("matching.sync.checkpoint.lag", pagesAheadOfCheckpoint, AtomicInteger::get)
+                .description("Pages fetched but not yet covered by the checkpoint")
+                .register(meterRegistry);
+    }
 
     public void syncUsers() {
-        log.info("Starting user sync to Elasticsearch...");
-        int page = 0;
-        Page<UserProfileDto> userPage;
-        int totalSynced = 0;
-
-        do {
-            Pageable pageable = Pageable.ofSize(100).withPage(page);
-            userPage = userServiceClient.getAllUsers(pageable);
-
-            if (!userPage.getContent().isEmpty()) {
-                List<UserDocument> documents = userPage.getContent().stream()
-                        .map(this::mapToDocument)
-                        .toList();
-                
-                // Log first user's skills for debugging
-                if (page == 0 && !documents.isEmpty()) {
-                    UserDocument firstDoc = documents.get(0);
-                    log.info("Sample user being synced - KeycloakId: {}, Skills Offered: {}, Skills Wanted: {}", 
-                            firstDoc.getKeycloakId(), 
-                            firstDoc.getSkillsOffered(), 
-                            firstDoc.getSkillsWanted());
+        UserSyncCheckpoint checkpoint = userSyncCheckpointRepository.findById(CHECKPOINT_NAME)
+                .filter(c -> !c.isCompleted())
+                .orElseGet(() -> UserSyncCheckpoint.builder().name(CHECKPOINT_NAME).build());
+        Long afterId = checkpoint.getLastUserId();
+        if (afterId != null) {
+            log.info("Resuming user sync after profile id {}, {} users already synced",
+                    afterId, checkpoint.getSyncedCount());
+        } else {
+            log.info("Starting user sync to Elasticsearch...");
+        }
+
+        SyncProgress progress = new SyncProgress(checkpoint);
+        BulkIngester<Integer> ingester = newIngester(progress);
+        ExecutorService fetchers = Executors.newFixedThreadPool(parallelism);
+        Exception failure = null;
+        try {
+            long start = afterId != null ? afterId : 0;
+            long lastId = fetchLastUserId();
+            List<Future<?>> pending = new ArrayList<>();
+            if (start > 0 && !skillIndexCovers(checkpoint)) {
+                log.info("Skill index does not cover profile ids up to {}, rebuilding it from the start", start);
+                for (long from = 0; from < start; from += pageSize) {
+                    long windowStart = from;
+                    long windowEnd = Math.min(from + pageSize, start);
+                    pending.add(fetchers.submit(() ->
+                            skillIndex.indexAll(documentsOf(fetchWindow(windowStart, windowEnd).getContent()))));
                 }
-                
-                userElasticsearchRepository.saveAll(documents);
-                totalSynced += documents.size();
-                log.info("Synced {} users (page {}), total synced so far: {}", documents.size(), page, totalSynced);
             }
+            int window = 0;
+            for (long from = start; from < lastId; from += pageSize) {
+                long windowStart = from;
+                long windowEnd = Math.min(from + pageSize, lastId);
+                int windowNumber = window++;
+                pending.add(fetchers.submit(() -> ingestPage(ingester, progress, windowNumber, windowEnd,
+                        fetchWindow(windowStart, windowEnd).getContent())));
+            }
+            for (Future<?> future : pending) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            failure = e.getCause() instanceof Exception cause ? cause : e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = e;
+        } catch (Exception e) {
+            failure = e;
+        } finally {
+            fetchers.shutdownNow();
+            // Flushes whatever was fetched, so the checkpoint gets as far as it can even after a failure
+            ingester.close();
+        }
 
-            page++;
-        } while (userPage.hasNext());
-        
-        log.info("User sync completed. Total users synced: {}", totalSynced);
+        long elapsedNanos = progress.elapsedNanos();
+        syncTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        throughput = progress.throughput();
+        if (failure != null || !progress.finished()) {
+            String message = failure != null ? failure.getMessage() : "not every document was acknowledged";
+            log.error("User sync stopped after profile id {} ({} users synced): {}",
+                    checkpoint.getLastUserId(), checkpoint.getSyncedCount(), message);
+            throw new ServiceException("50000005", "User sync incomplete, it will resume after profile id "
+                    + checkpoint.getLastUserId(),
+                    ErrorConstant.CATEGORY.TS, ErrorConstant.SEVERITY.C, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        checkpoint.setCompleted(true);
+        checkpoint.setLastUserId(null);
+        checkpoint.setUpdatedAt(Instant.now());
+        userSyncCheckpointRepository.save(checkpoint);
+        log.info("User sync completed. Total users synced: {} in {} ms ({} docs/sec)",
+                checkpoint.getSyncedCount(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(throughput));
+        skillIndex.snapshot();
+    }
+
+    /**
+     * True when the skill index already holds the users before the checkpoint, which is only known when it
+     * was restored from a snapshot written no earlier than the checkpoint.
+     */
+    private boolean skillIndexCovers(UserSyncCheckpoint checkpoint) {
+        Instant restoredSnapshotAt = skillIndex.getRestoredSnapshotAt();
+        return restoredSnapshotAt != null && checkpoint.getUpdatedAt() != null
+                && !restoredSnapshotAt.isBefore(checkpoint.getUpdatedAt());
+    }
+
+    private List<UserDocument> documentsOf(List<UserProfileDto> profiles) {
+        return profiles.stream()
+                .map(this::mapToDocument)
+                .toList();
+    }
+
+    // Largest profile id when the sync starts, or 0 when there are no profiles
+    private long fetchLastUserId() {
+        List<UserProfileDto> last = userServiceClient.getAllUsers(null, null,
+                PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "id"))).getContent();
+        return last.isEmpty() || last.get(0).getId() == null ? 0 : last.get(0).getId();
+    }
+
+    // Ids are unique, so a window of pageSize ids always fits on one page
+    private Page<UserProfileDto> fetchWindow(long afterId, long untilId) {
+        return userServiceClient.getAllUsers(afterId, untilId, PageRequest.of(0, pageSize, Sort.by("id")));
+    }
+
+    private void ingestPage(BulkIngester<Integer> ingester, SyncProgress progress, int page, long windowEnd,
+                            List<UserProfileDto> profiles) {
+        List<UserDocument> documents = documentsOf(profiles);
+        skillIndex.indexAll(documents);
+        // Registered before the first add so an early acknowledgement always finds the page
+        progress.fetched(page, documents.size(), windowEnd);
+        for (UserDocument document : documents) {
+            ingester.add(indexOperation(document), page);
+        }
+        log.debug("Queued {} users from page {}", documents.size(), page);
+    }
+
+    private BulkOperation indexOperation(UserDocument document) {
+        // Mapped by Spring Data so the bulk source matches what the repository writes
+        Map<String, Object> source = elasticsearchOperations.getElasticsearchConverter().mapObject(document);
+        String index = elasticsearchOperations.getIndexCoordinatesFor(UserDocument.class).getIndexName();
+        return BulkOperation.of(b -> b.index(i -> i
+                .index(index)
+                .id(document.getKeycloakId().toString())
+                .document(source)));
+    }
+
+    private BulkIngester<Integer> newIngester(SyncProgress progress) {
+        return BulkIngester.of(b -> b
+                .client(elasticsearchClient)
+                .maxOperations(bulkMaxOperations)
+                .maxSize(bulkMaxSize.toBytes())
+                .maxConcurrentRequests(bulkMaxConcurrentRequests)
+                .flushInterval(bulkFlushInterval.toMillis(), TimeUnit.MILLISECONDS)
+                .listener(new BulkListener<Integer>() {
+                    @Override
+                    public void beforeBulk(long executionId, BulkRequest request, List<Integer> pages) {
+                    }
+
+                    @Override
+                    public void afterBulk(long executionId, BulkRequest request, List<Integer> pages, BulkResponse response) {
+                        List<BulkResponseItem> items = response.items();
+                        for (int i = 0; i < pages.size(); i++) {
+                            BulkResponseItem item = items.get(i);
+                            if (item.error() != null) {
+                                log.warn("Failed to index user {}: {}", item.id(), item.error().reason());
+                            }
+                            progress.acknowledged(pages.get(i), item.error() == null);
+                        }
+                    }
+
+                    @Override
+                    public void afterBulk(long executionId, BulkRequest request, List<Integer> pages, Throwable failure) {
+                        log.warn("Bulk request of {} users failed: {}", pages.size(), failure.getMessage());
+                        for (Integer page : pages) {
+                            progress.acknowledged(page, false);
+                        }
+                    }
+                }));
     }
 
     /**
@@ -81,7 +341,11 @@ public class UserSyncService {
                         document.getSkillsOffered(), 
                         document.getSkillsWanted());
                 
+                UserDocument previous = skillIndex.get(keycloakId).orElse(null);
+                skillIndex.index(document);
                 UserDocument saved = userElasticsearchRepository.save(document);
+                evictFeeds(keycloakId);
+                reverseMatchService.onProfileIndexed(previous, document);
                 log.info("Successfully synced user {} to Elasticsearch with {} skills offered and {} skills wanted", 
                         saved.getKeycloakId(),
                         saved.getSkillsOffered() != null ? saved.getSkillsOffered().size() : 0,
@@ -96,11 +360,122 @@ public class UserSyncService {
         }
     }
 
+    /**
+     * Applies a profile change published by user-service to the shared state: the Elasticsearch document,
+     * the precomputed feed and the new-candidate alerts. Runs on one instance per event. Saving by
+     * keycloakId makes this an upsert, so a redelivered or out-of-band event just rewrites the same document.
+     *
+     * <p>Changes and deletions arrive on separate topics, so a change can be consumed after the user's
+     * deletion. Changes for a user with a {@code deleted_user} tombstone are dropped, and the tombstone is
+     * checked again after the write in case the deletion was applied in between.
+     */
+    public void applyProfileChange(UserDocument document) {
+        UUID keycloakId = document.getKeycloakId();
+        if (isDeleted(keycloakId)) {
+            log.info("Dropping profile change for deleted user {}", keycloakId);
+            return;
+        }
+        assignSkillIds(document);
+        // Read from the index rather than the skill index, which this instance may already have updated
+        UserDocument previous = userElasticsearchRepository.findById(keycloakId).orElse(null);
+        userElasticsearchRepository.save(document);
+        dropPrecomputedFeed(keycloakId);
+        if (isDeleted(keycloakId)) {
+            userElasticsearchRepository.deleteById(keycloakId);
+            log.info("User {} was deleted while their profile change was applied, removed it again", keycloakId);
+            return;
+        }
+        reverseMatchService.onProfileIndexed(previous, document);
+        log.debug("Applied profile change for user {}", keycloakId);
+    }
+
+    /**
+     * Applies a profile change to this instance's in-memory state, the skill index and the feed cache.
+     * Runs on every instance for every event, and drops changes of deleted users the same way as
+     * {@link #applyProfileChange}.
+     */
+    public void refreshProfile(UserDocument document) {
+        UUID keycloakId = document.getKeycloakId();
+        if (isDeleted(keycloakId)) {
+            return;
+        }
+        assignSkillIds(document);
+        skillIndex.index(document);
+        feedCache.evictUser(keycloakId);
+        if (isDeleted(keycloakId)) {
+            skillIndex.remove(keycloakId);
+        }
+    }
+
+    /**
+     * Removes a deleted user from the shared state. Runs on one instance per event. The tombstone is
+     * written first, so a change consumed from here on is dropped.
+     */
+    public void removeUser(UUID keycloakId, Instant deletedAt) {
+        deletedUserRepository.recordDeletion(keycloakId, deletedAt);
+        userElasticsearchRepository.deleteById(keycloakId);
+        exclusionIndexService.removeUser(keycloakId);
+        dropPrecomputedFeed(keycloakId);
+        log.info("Removed deleted user {} from the matching indexes", keycloakId);
+    }
+
+    /**
+     * Removes a deleted user from this instance's in-memory state. Runs on every instance for every event.
+     * The tombstone is written here as well, since this may run before the shared consumer gets to it.
+     */
+    public void forgetUser(UUID keycloakId, Instant deletedAt) {
+        try {
+            deletedUserRepository.recordDeletion(keycloakId, deletedAt);
+        } catch (Exception e) {
+            // The shared consumer writes it too, and retries on failure
+            log.warn("Failed to record deletion of user {}: {}", keycloakId, e.getMessage());
+        }
+        skillIndex.remove(keycloakId);
+        feedCache.evictUser(keycloakId);
+    }
+
+    private boolean isDeleted(UUID keycloakId) {
+        return deletedUserRepository.existsById(keycloakId);
+    }
+
+    private void assignSkillIds(UserDocument document) {
+        document.setSkillsOffered(internAll(document.getSkillsOffered()));
+        document.setSkillsWanted(internAll(document.getSkillsWanted()));
+        document.setSkillsOfferedIds(skillDictionary.idsOf(document.getSkillsOffered()));
+        document.setSkillsWantedIds(skillDictionary.idsOf(document.getSkillsWanted()));
+    }
+
+    /**
+     * The user's skills drive their ranking, so their cached and precomputed feeds are both dropped.
+     */
+    private void evictFeeds(UUID keycloakId) {
+        feedCache.evictUser(keycloakId);
+        dropPrecomputedFeed(keycloakId);
+    }
+
+    private void dropPrecomputedFeed(UUID keycloakId) {
+        try {
+            precomputedFeedRepository.deleteByUserId(keycloakId);
+        } catch (Exception e) {
+            log.warn("Failed to drop precomputed feed of user {}: {}", keycloakId, e.getMessage());
+        }
+    }
+
+    private List<String> internAll(List<String> skills) {
+        return skills != null
+                ? skills.stream()
+                        .filter(s -> s != null && !s.trim().isEmpty())
+                        .map(skillDictionary::intern)
+                        .toList()
+                : Collections.emptyList();
+    }
+
     private UserDocument mapToDocument(UserProfileDto dto){
         List<String> skillsWanted = dto.getSkillsWanted() != null 
                 ? dto.getSkillsWanted().stream()
                         .map(SkillsWantedDto::getSkillName)
                         .filter(s -> s != null && !s.trim().isEmpty())
+                        .map(skillDictionary::intern)
                         .toList()
                 : Collections.emptyList();
         
@@ -108,6 +483,7 @@ public class UserSyncService {
                 ? dto.getSkillsOffered().stream()
                         .map(SkillsOfferedDto::getSkillName)
                         .filter(s -> s != null && !s.trim().isEmpty())
+                        .map(skillDictionary::intern)
                         .toList()
                 : Collections.emptyList();
         
@@ -128,8 +504,105 @@ public class UserSyncService {
                 .gender(dto.getGender())
                 .skillsWanted(skillsWanted)
                 .skillsOffered(skillsOffered)
+                .skillsWantedIds(skillDictionary.idsOf(skillsWanted))
+                .skillsOfferedIds(skillDictionary.idsOf(skillsOffered))
                 .email(dto.getEmail())
                 .userName(dto.getUserName())
                 .build();
     }
+
+    /**
+     * Tracks which pages are fully acknowledged and advances the checkpoint over the contiguous prefix.
+     * A page with a failed document holds the checkpoint back, so the next run indexes it again.
+     */
+    private final class SyncProgress {
+        private final UserSyncCheckpoint checkpoint;
+        private final Map<Integer, PageState> pages = new HashMap<>();
+        private final long startedNanos = System.nanoTime();
+        private final long syncedBefore;
+        private int nextPage;
+        private int fetchedPages;
+        private int failedPages;
+
+        SyncProgress(UserSyncCheckpoint checkpoint) {
+            this.checkpoint = checkpoint;
+            this.syncedBefore = checkpoint.getSyncedCount();
+            pendingDocuments.set(0);
+            pagesAheadOfCheckpoint.set(0);
+        }
+
+        synchronized void fetched(int page, int documents, Long lastUserId) {
+            pages.put(page, new PageState(documents, lastUserId));
+            pendingDocuments.addAndGet(documents);
+            fetchedPages++;
+            advance();
+        }
+
+        synchronized void acknowledged(int page, boolean success) {
+            PageState state = pages.get(page);
+            pendingDocuments.decrementAndGet();
+            if (success) {
+                syncedDocuments.increment();
+            } else {
+                failedDocuments.increment();
+                if (!state.failed) {
+                    state.failed = true;
+                    failedPages++;
+                }
+            }
+            state.pending--;
+            advance();
+        }
+
+        synchronized boolean finished() {
+            return failedPages == 0 && pages.isEmpty() && nextPage == fetchedPages;
+        }
+
+        long elapsedNanos() {
+            return System.nanoTime() - startedNanos;
+        }
+
+        synchronized double throughput() {
+            double seconds = Math.max(elapsedNanos(), 1) / 1_000_000_000d;
+            return (checkpoint.getSyncedCount() - syncedBefore) / seconds;
+        }
+
+        private void advance() {
+            boolean moved = false;
+            PageState state;
+            while ((state = pages.get(nextPage)) != null && state.pending == 0 && !state.failed) {
+                pages.remove(nextPage);
+                nextPage++;
+                if (state.lastUserId != null) {
+                    checkpoint.setLastUserId(state.lastUserId);
+                }
+                checkpoint.setSyncedCount(checkpoint.getSyncedCount() + state.documents);
+                moved = true;
+            }
+            pagesAheadOfCheckpoint.set(pages.size());
+            if (moved) {
+                throughput = throughput();
+                checkpoint.setUpdatedAt(Instant.now());
+                try {
+                    userSyncCheckpointRepository.save(checkpoint);
+                } catch (Exception e) {
+                    // Only costs re-indexing a few pages on the next resume
+                    log.warn("Failed to save user sync checkpoint: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static final class PageState {
+        private final int documents;
+        private final Long lastUserId;
+        private int pending;
+        private boolean failed;
+
+        PageState(int documents, Long lastUserId) {
+            this.documents = documents;
+            this.lastUserId = lastUserId;
+            this.pending = documents;
+        }
+    }
 }
@@ -2,6 +2,8 @@ package com.bartr.matching.controller;
 
 import com.bartr.matching.UserDocument;
 import com.bartr.matching.request.SwipeRequest;
+import com.bartr.matching.response.FeedPageResponse;
+import com.bartr.matching.response.MatchHistoryPageResponse;
 import com.bartr.matching.response.SwipeResponse;
 import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.*;
@@ -15,9 +17,17 @@ public interface IMatchingController {
     @GetMapping("/matches/top")
     public List<UserDocument> getPersonalizedProfiles(@RequestParam(name = "keycloakId") UUID keycloakId);
 
+    @GetMapping("/matches/feed")
+    public FeedPageResponse getFeedPage(@RequestParam(name = "keycloakId") UUID keycloakId,
+                                        @RequestParam(name = "cursor", required = false) String cursor,
+                                        @RequestParam(name = "size", required = false) Integer size);
+
     @PostMapping("/swipe")
     public SwipeResponse swipe(@Valid @RequestBody SwipeRequest request);
 
+    @PostMapping("/swipe/batch")
+    public List<SwipeResponse> swipeBatch(@Valid @RequestBody List<SwipeRequest> requests);
+
     @GetMapping("/stats/matches")
     public Long getMatchesCount();
 
@@ -27,6 +37,11 @@ public interface IMatchingController {
     @GetMapping("/matches/history")
     public List<com.bartr.matching.response.MatchHistoryResponse> getMatchHistory(@RequestParam(name = "keycloakId") UUID keycloakId);
 
+    @GetMapping("/matches/history/page")
+    public MatchHistoryPageResponse getMatchHistoryPage(@RequestParam(name = "keycloakId") UUID keycloakId,
+                                                        @RequestParam(name = "cursor", required = false) String cursor,
+                                                        @RequestParam(name = "size", required = false) Integer size);
+
     @DeleteMapping("/matches/unmatch")
     public void unmatch(@RequestParam(name = "user1Id") UUID user1Id, @RequestParam(name = "user2Id") UUID user2Id);
 
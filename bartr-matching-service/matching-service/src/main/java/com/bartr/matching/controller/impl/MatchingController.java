@@ -1,11 +1,15 @@
 package com.bartr.matching.controller.impl;
 
 import com.bartr.matching.UserDocument;
+import com.bartr.matching.application.service.FeedService;
+import com.bartr.matching.application.service.MatchHistoryService;
 import com.bartr.matching.application.service.MatchingService;
 import com.bartr.matching.application.service.SwipeService;
 import com.bartr.matching.application.service.UserSyncService;
 import com.bartr.matching.controller.IMatchingController;
 import com.bartr.matching.request.SwipeRequest;
+import com.bartr.matching.response.FeedPageResponse;
+import com.bartr.matching.response.MatchHistoryPageResponse;
 import com.bartr.matching.response.SwipeResponse;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
@@ -19,6 +23,8 @@ import java.util.UUID;
 public class MatchingController implements IMatchingController {
 
     private MatchingService matchingService;
+    private FeedService feedService;
+    private MatchHistoryService matchHistoryService;
     private SwipeService swipeService;
     private UserSyncService userSyncService;
 
@@ -27,11 +33,21 @@ public class MatchingController implements IMatchingController {
         return matchingService.findTopMatches(keycloakId);
     }
 
+    @Override
+    public FeedPageResponse getFeedPage(UUID keycloakId, String cursor, Integer size) {
+        return feedService.getFeedPage(keycloakId, cursor, size);
+    }
+
     @Override
     public SwipeResponse swipe(@Valid SwipeRequest request) {
         return swipeService.swipe(request);
     }
 
+    @Override
+    public List<SwipeResponse> swipeBatch(@Valid List<SwipeRequest> requests) {
+        return swipeService.swipeBatch(requests);
+    }
+
     @Override
     public Long getMatchesCount() {
         return matchingService.getMatchesCount();
@@ -52,6 +68,11 @@ public class MatchingController implements IMatchingController {
         return matchingService.getMatchHistory(keycloakId);
     }
 
+    @Override
+    public MatchHistoryPageResponse getMatchHistoryPage(UUID keycloakId, String cursor, Integer size) {
+        return matchHistoryService.getMatchHistoryPage(keycloakId, cursor, size);
+    }
+
     @Override
     public void unmatch(UUID user1Id, UUID user2Id) {
         matchingService.unmatch(user1Id, user2Id);
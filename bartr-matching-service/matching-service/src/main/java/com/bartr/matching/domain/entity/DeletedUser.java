@@ -0,0 +1,26 @@
+package com.bartr.matching.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Tombstone of a profile deleted in user-service. Keycloak ids are never reused, so a profile change for
+ * a tombstoned user is always one that arrived after its deletion.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "deleted_user")
+public class DeletedUser {
+    @Id
+    private UUID keycloakId;
+
+    @Column(nullable = false)
+    private Instant deletedAt;
+}
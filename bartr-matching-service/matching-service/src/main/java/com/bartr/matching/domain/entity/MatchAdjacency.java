@@ -0,0 +1,35 @@
+package com.bartr.matching.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Each match seen from both sides: one row per user and partner. A user's matches are a single range
+ * of the primary key, or of the history index when they are needed newest first.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@IdClass(MatchAdjacencyId.class)
+@Table(name = "match_adjacency", indexes = {
+    @Index(name = "idx_match_adjacency_user_date_match", columnList = "userId, matchedDate DESC, matchId DESC")
+})
+public class MatchAdjacency {
+    @Id
+    private UUID userId;
+
+    @Id
+    private UUID partnerId;
+
+    @Column(nullable = false)
+    private long matchId;
+
+    @Column(nullable = false)
+    private LocalDate matchedDate;
+}
@@ -0,0 +1,16 @@
+package com.bartr.matching.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MatchAdjacencyId implements Serializable {
+    private UUID userId;
+    private UUID partnerId;
+}
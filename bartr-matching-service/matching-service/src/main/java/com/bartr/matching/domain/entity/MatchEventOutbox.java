@@ -0,0 +1,40 @@
+package com.bartr.matching.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "match_event_outbox", indexes = {
+    @Index(name = "idx_match_event_outbox_sent_id", columnList = "sentAt, id")
+})
+public class MatchEventOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(nullable = false)
+    private UUID user1Id;
+
+    @Column(nullable = false)
+    private UUID user2Id;
+
+    @Column(nullable = false)
+    private Instant matchedAt;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    // Null until the relay has published the event
+    private Instant sentAt;
+
+    @Column(nullable = false)
+    private int attempts;
+}
@@ -12,7 +12,9 @@ import java.util.UUID;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "match_history")
+@Table(name = "match_history", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_match_history_pair_key", columnNames = {"pairKey"})
+})
 public class MatchHistory {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -26,4 +28,14 @@ public class MatchHistory {
 
     @Column(nullable = false)
     private LocalDate matchedDate;
+
+    // Both user ids in canonical order, the same whichever user completed the match
+    private String pairKey;
+
+    public static String pairKey(UUID userId, UUID otherUserId) {
+        // Ordered as text so the key matches what LEAST/GREATEST over uuid::text gives in SQL
+        String first = userId.toString();
+        String second = otherUserId.toString();
+        return first.compareTo(second) <= 0 ? first + ":" + second : second + ":" + first;
+    }
 }
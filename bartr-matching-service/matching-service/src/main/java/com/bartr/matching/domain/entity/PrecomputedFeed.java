@@ -0,0 +1,50 @@
+package com.bartr.matching.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A user's ranked top candidates from the last precompute run. The IDs are packed as 16-byte
+ * (msb, lsb) pairs in rank order, so a row costs one bytea instead of a row per candidate.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "precomputed_feed")
+public class PrecomputedFeed {
+    @Id
+    private UUID userId;
+
+    @Column(nullable = false)
+    private byte[] candidateIds;
+
+    @Column(nullable = false)
+    private Instant computedAt;
+
+    public static byte[] encode(List<UUID> ids) {
+        ByteBuffer buffer = ByteBuffer.allocate(ids.size() * 16);
+        for (UUID id : ids) {
+            buffer.putLong(id.getMostSignificantBits());
+            buffer.putLong(id.getLeastSignificantBits());
+        }
+        return buffer.array();
+    }
+
+    public static List<UUID> decode(byte[] packed) {
+        ByteBuffer buffer = ByteBuffer.wrap(packed);
+        List<UUID> ids = new ArrayList<>(packed.length / 16);
+        while (buffer.remaining() >= 16) {
+            ids.add(new UUID(buffer.getLong(), buffer.getLong()));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,21 @@
+package com.bartr.matching.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "skill_dictionary")
+public class SkillDictionaryEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private int id;
+
+    // Normalized skill name
+    @Column(nullable = false, unique = true)
+    private String name;
+}
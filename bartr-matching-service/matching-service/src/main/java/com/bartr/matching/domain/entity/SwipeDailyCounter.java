@@ -0,0 +1,26 @@
+package com.bartr.matching.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@IdClass(SwipeDailyCounterId.class)
+@Table(name = "swipe_daily_counter")
+public class SwipeDailyCounter {
+    @Id
+    private UUID userId;
+
+    @Id
+    private LocalDate swipeDate;
+
+    @Column(nullable = false)
+    private int swipeCount;
+}
@@ -0,0 +1,17 @@
+package com.bartr.matching.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SwipeDailyCounterId implements Serializable {
+    private UUID userId;
+    private LocalDate swipeDate;
+}
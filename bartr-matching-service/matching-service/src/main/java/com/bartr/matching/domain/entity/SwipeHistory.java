@@ -14,10 +14,15 @@ import java.util.UUID;
 @NoArgsConstructor
 @Table(name = "swipe_history", uniqueConstraints = {
     @UniqueConstraint(name = "uk_user_swiped_user", columnNames = {"userId", "swipedUserId"})
+}, indexes = {
+    // Inbound likes of a user; userId is carried along so the lookup is an index-only scan
+    @Index(name = "idx_swipe_history_swiped_user_action", columnList = "swipedUserId, action, userId")
 })
 public class SwipeHistory {
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts, one sequence call per 50 ids
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "swipe_history_seq")
+    @SequenceGenerator(name = "swipe_history_seq", sequenceName = "swipe_history_seq", allocationSize = 50)
     private long id;
 
     @Column(nullable = false)
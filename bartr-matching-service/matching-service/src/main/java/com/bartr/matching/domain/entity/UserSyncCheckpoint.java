@@ -0,0 +1,28 @@
+package com.bartr.matching.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "user_sync_checkpoint")
+public class UserSyncCheckpoint {
+    @Id
+    private String name;
+
+    // Largest user-service profile id whose page, and every page before it, is in Elasticsearch
+    private Long lastUserId;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    private long syncedCount;
+
+    private Instant updatedAt;
+}
@@ -0,0 +1,23 @@
+package com.bartr.matching.domain.repositories;
+
+import com.bartr.matching.domain.entity.DeletedUser;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Repository
+public interface DeletedUserRepository extends JpaRepository<DeletedUser, UUID> {
+
+    // Every instance records the same deletion, so the first one wins
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO deleted_user (keycloak_id, deleted_at) VALUES (:keycloakId, :deletedAt) "
+            + "ON CONFLICT (keycloak_id) DO NOTHING", nativeQuery = true)
+    int recordDeletion(@Param("keycloakId") UUID keycloakId, @Param("deletedAt") Instant deletedAt);
+}
@@ -0,0 +1,47 @@
+package com.bartr.matching.domain.repositories;
+
+import com.bartr.matching.domain.entity.MatchAdjacency;
+import com.bartr.matching.domain.entity.MatchAdjacencyId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface MatchAdjacencyRepository extends JpaRepository<MatchAdjacency, MatchAdjacencyId> {
+
+    @Query("SELECT a.partnerId FROM MatchAdjacency a WHERE a.userId = :userId")
+    List<UUID> findPartnerIdsForUser(@Param("userId") UUID userId);
+
+    @Query("SELECT new com.bartr.matching.domain.repositories.UserPair(a.userId, a.partnerId) "
+            + "FROM MatchAdjacency a WHERE a.userId IN :userIds")
+    List<UserPair> findPartnerIdsForUsers(@Param("userIds") Collection<UUID> userIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO match_adjacency (user_id, partner_id, match_id, matched_date) VALUES "
+            + "(:user1Id, :user2Id, :matchId, :matchedDate), (:user2Id, :user1Id, :matchId, :matchedDate) "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    void insertPair(@Param("user1Id") UUID user1Id,
+                    @Param("user2Id") UUID user2Id,
+                    @Param("matchId") long matchId,
+                    @Param("matchedDate") LocalDate matchedDate);
+
+    @Modifying
+    @Query(value = "DELETE FROM match_adjacency WHERE (user_id = :user1Id AND partner_id = :user2Id) "
+            + "OR (user_id = :user2Id AND partner_id = :user1Id)", nativeQuery = true)
+    int deletePair(@Param("user1Id") UUID user1Id, @Param("user2Id") UUID user2Id);
+
+    // Adds both rows for matches recorded before the adjacency table existed
+    @Modifying
+    @Query(value = "INSERT INTO match_adjacency (user_id, partner_id, match_id, matched_date) "
+            + "SELECT user1_id, user2_id, id, matched_date FROM match_history "
+            + "UNION ALL SELECT user2_id, user1_id, id, matched_date FROM match_history "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int backfillFromMatchHistory();
+}
@@ -0,0 +1,33 @@
+package com.bartr.matching.domain.repositories;
+
+import com.bartr.matching.domain.entity.MatchEventOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MatchEventOutboxRepository extends JpaRepository<MatchEventOutbox, Long> {
+
+    // Rows another relay instance has locked are skipped rather than waited for
+    @Query(value = "SELECT * FROM match_event_outbox WHERE sent_at IS NULL ORDER BY id LIMIT :limit "
+            + "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<MatchEventOutbox> lockUnsent(@Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE MatchEventOutbox o SET o.sentAt = :sentAt WHERE o.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") Instant sentAt);
+
+    @Modifying
+    @Query("UPDATE MatchEventOutbox o SET o.attempts = o.attempts + 1 WHERE o.id IN :ids")
+    int incrementAttempts(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM MatchEventOutbox o WHERE o.sentAt < :before")
+    int deleteSentBefore(@Param("before") Instant before);
+}
@@ -2,10 +2,12 @@ package com.bartr.matching.domain.repositories;
 
 import com.bartr.matching.domain.entity.MatchHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,12 +15,50 @@ import java.util.UUID;
 @Repository
 public interface MatchHistoryRepository extends JpaRepository<MatchHistory, Long> {
 
-    Optional<MatchHistory> findByUser1IdAndUser2Id(UUID user1Id, UUID user2Id);
-    boolean existsByUser1IdAndUser2Id(UUID user1Id, UUID user2Id);
-    List<MatchHistory> findByUser1IdOrUser2Id(UUID user1Id, UUID user2Id);
-    
-    // Custom query to ensure it works correctly - finds all matches where the user is either user1 or user2
-    @Query("SELECT m FROM MatchHistory m WHERE m.user1Id = :userId OR m.user2Id = :userId")
+    @Query("SELECT m.id FROM MatchHistory m WHERE m.pairKey = :pairKey")
+    Optional<Long> findIdByPairKey(@Param("pairKey") String pairKey);
+
+    // Returns 0 when the pair is already matched, the unique pair key decides between concurrent swipes
+    @Modifying
+    @Query(value = "INSERT INTO match_history (user1_id, user2_id, matched_date, pair_key) "
+            + "VALUES (:user1Id, :user2Id, :matchedDate, :pairKey) ON CONFLICT (pair_key) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("user1Id") UUID user1Id,
+                       @Param("user2Id") UUID user2Id,
+                       @Param("matchedDate") LocalDate matchedDate,
+                       @Param("pairKey") String pairKey);
+
+    @Modifying
+    @Query("DELETE FROM MatchHistory m WHERE m.pairKey = :pairKey")
+    int deleteByPairKey(@Param("pairKey") String pairKey);
+
+    // All of a user's matches, newest first, through their adjacency rows
+    @Query("SELECT m FROM MatchAdjacency a, MatchHistory m WHERE a.userId = :userId AND m.id = a.matchId "
+            + "ORDER BY a.matchedDate DESC, a.matchId DESC")
     List<MatchHistory> findAllMatchesForUser(@Param("userId") UUID userId);
 
+    /**
+     * One page of a user's matches, newest first, strictly before (beforeDate, beforeId). A range scan of
+     * the user's adjacency rows followed by primary key lookups.
+     */
+    @Query(value = "SELECT m.* FROM match_adjacency a JOIN match_history m ON m.id = a.match_id "
+            + "WHERE a.user_id = :userId AND (a.matched_date, a.match_id) < (:beforeDate, :beforeId) "
+            + "ORDER BY a.matched_date DESC, a.match_id DESC LIMIT :limit", nativeQuery = true)
+    List<MatchHistory> findMatchPageForUser(@Param("userId") UUID userId,
+                                            @Param("beforeDate") LocalDate beforeDate,
+                                            @Param("beforeId") long beforeId,
+                                            @Param("limit") int limit);
+
+    // Matches recorded before the pair key existed; older duplicates of a pair are removed first
+    @Modifying
+    @Query(value = "DELETE FROM match_history m USING match_history d "
+            + "WHERE m.pair_key IS NULL AND d.id <> m.id "
+            + "AND LEAST(m.user1_id::text, m.user2_id::text) = LEAST(d.user1_id::text, d.user2_id::text) "
+            + "AND GREATEST(m.user1_id::text, m.user2_id::text) = GREATEST(d.user1_id::text, d.user2_id::text) "
+            + "AND (d.pair_key IS NOT NULL OR d.id < m.id)", nativeQuery = true)
+    int deleteDuplicatePairsWithoutKey();
+
+    @Modifying
+    @Query(value = "UPDATE match_history SET pair_key = LEAST(user1_id::text, user2_id::text) || ':' "
+            + "|| GREATEST(user1_id::text, user2_id::text) WHERE pair_key IS NULL", nativeQuery = true)
+    int backfillPairKeys();
 }
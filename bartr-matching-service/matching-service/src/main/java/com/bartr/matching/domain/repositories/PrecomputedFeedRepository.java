@@ -0,0 +1,40 @@
+package com.bartr.matching.domain.repositories;
+
+import com.bartr.matching.domain.entity.PrecomputedFeed;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Repository
+public interface PrecomputedFeedRepository extends JpaRepository<PrecomputedFeed, UUID> {
+
+    // Held until the surrounding transaction ends, so only one instance runs the precompute at a time
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('precomputed_feed'))", nativeQuery = true)
+    boolean tryLockPrecompute();
+
+    @Modifying
+    @Query(value = "INSERT INTO precomputed_feed (user_id, candidate_ids, computed_at) "
+            + "VALUES (:userId, :candidateIds, :computedAt) "
+            + "ON CONFLICT (user_id) DO UPDATE SET candidate_ids = EXCLUDED.candidate_ids, computed_at = EXCLUDED.computed_at",
+            nativeQuery = true)
+    int upsert(@Param("userId") UUID userId,
+               @Param("candidateIds") byte[] candidateIds,
+               @Param("computedAt") Instant computedAt);
+
+    // Drops rows of users the run no longer produced a feed for, e.g. deleted users
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PrecomputedFeed f WHERE f.computedAt < :before")
+    int deleteComputedBefore(@Param("before") Instant before);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PrecomputedFeed f WHERE f.userId = :userId")
+    int deleteByUserId(@Param("userId") UUID userId);
+}
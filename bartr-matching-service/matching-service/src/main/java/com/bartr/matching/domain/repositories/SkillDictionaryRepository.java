@@ -0,0 +1,21 @@
+package com.bartr.matching.domain.repositories;
+
+import com.bartr.matching.domain.entity.SkillDictionaryEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SkillDictionaryRepository extends JpaRepository<SkillDictionaryEntry, Integer> {
+
+    Optional<SkillDictionaryEntry> findByName(String name);
+
+    // Concurrent instances may register the same skill; the unique name keeps a single ID
+    @Modifying
+    @Query(value = "INSERT INTO skill_dictionary (name) VALUES (:name) ON CONFLICT (name) DO NOTHING", nativeQuery = true)
+    void insertIfAbsent(@Param("name") String name);
+}
@@ -0,0 +1,44 @@
+package com.bartr.matching.domain.repositories;
+
+import com.bartr.matching.domain.entity.SwipeDailyCounter;
+import com.bartr.matching.domain.entity.SwipeDailyCounterId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Repository
+public interface SwipeDailyCounterRepository extends JpaRepository<SwipeDailyCounter, SwipeDailyCounterId> {
+
+    /**
+     * Counts one swipe for the day unless the limit is already reached, returning 0 in that case. The
+     * row lock taken by the upsert makes concurrent swipes of the same user check the limit one at a time.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO swipe_daily_counter (user_id, swipe_date, swipe_count) VALUES (:userId, :swipeDate, 1) "
+            + "ON CONFLICT (user_id, swipe_date) DO UPDATE SET swipe_count = swipe_daily_counter.swipe_count + 1 "
+            + "WHERE swipe_daily_counter.swipe_count < :dailyLimit", nativeQuery = true)
+    int tryIncrement(@Param("userId") UUID userId,
+                     @Param("swipeDate") LocalDate swipeDate,
+                     @Param("dailyLimit") int dailyLimit);
+
+    /**
+     * Returns the day's swipe count, creating the row if needed, and keeps it locked until the transaction
+     * ends so a batch can size itself against the limit before calling {@link #addSwipes}.
+     */
+    @Query(value = "INSERT INTO swipe_daily_counter (user_id, swipe_date, swipe_count) VALUES (:userId, :swipeDate, 0) "
+            + "ON CONFLICT (user_id, swipe_date) DO UPDATE SET swipe_count = swipe_daily_counter.swipe_count "
+            + "RETURNING swipe_count", nativeQuery = true)
+    int lockCount(@Param("userId") UUID userId, @Param("swipeDate") LocalDate swipeDate);
+
+    @Modifying
+    @Query(value = "UPDATE swipe_daily_counter SET swipe_count = swipe_count + :swipes "
+            + "WHERE user_id = :userId AND swipe_date = :swipeDate", nativeQuery = true)
+    int addSwipes(@Param("userId") UUID userId,
+                  @Param("swipeDate") LocalDate swipeDate,
+                  @Param("swipes") int swipes);
+}
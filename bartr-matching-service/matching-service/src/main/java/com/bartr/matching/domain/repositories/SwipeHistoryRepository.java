@@ -1,10 +1,15 @@
 package com.bartr.matching.domain.repositories;
 
 import com.bartr.matching.domain.entity.SwipeHistory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,4 +20,39 @@ public interface SwipeHistoryRepository extends JpaRepository<SwipeHistory, Long
     Optional<SwipeHistory> findByUserIdAndSwipedUserId(UUID userId, UUID swipedUserId);
     Optional<SwipeHistory> findByUserIdAndAction(UUID keycloakId, String left);
     List<SwipeHistory> findByUserId(UUID userId);
+    List<SwipeHistory> findByUserIdAndSwipedUserIdIn(UUID userId, Collection<UUID> swipedUserIds);
+    List<SwipeHistory> findByUserIdInAndSwipedUserId(Collection<UUID> userIds, UUID swipedUserId);
+
+    @Query("SELECT s.swipedUserId FROM SwipeHistory s WHERE s.userId = :userId")
+    List<UUID> findSwipedUserIdsByUserId(@Param("userId") UUID userId);
+
+    @Query("SELECT new com.bartr.matching.domain.repositories.UserPair(s.userId, s.swipedUserId) "
+            + "FROM SwipeHistory s WHERE s.userId IN :userIds")
+    List<UserPair> findSwipedUserIdsByUserIdIn(@Param("userIds") Collection<UUID> userIds);
+
+    // Users who swiped on userId with the given action and whom userId has not swiped on yet, newest first
+    @Query("SELECT s.userId FROM SwipeHistory s WHERE s.swipedUserId = :userId AND s.action = :action "
+            + "AND NOT EXISTS (SELECT r.id FROM SwipeHistory r WHERE r.userId = :userId AND r.swipedUserId = s.userId) "
+            + "ORDER BY s.id DESC")
+    List<UUID> findPendingSwiperIds(@Param("userId") UUID userId, @Param("action") String action, Pageable pageable);
+
+    /**
+     * Inserts the swipe unless the user already swiped on the profile and returns the new row's id, or empty
+     * when the row already existed. The insert itself is the existence check, so it is safe against a
+     * concurrent swipe on the same pair. Each call takes a whole block of the pooled sequence, which never
+     * overlaps the ids Hibernate hands out from its own blocks.
+     */
+    @Query(value = "INSERT INTO swipe_history (id, user_id, swiped_user_id, action, swipe_date) "
+            + "VALUES (nextval('swipe_history_seq'), :userId, :swipedUserId, :action, :swipeDate) "
+            + "ON CONFLICT (user_id, swiped_user_id) DO NOTHING RETURNING id", nativeQuery = true)
+    Optional<Long> insertIfAbsent(@Param("userId") UUID userId,
+                                  @Param("swipedUserId") UUID swipedUserId,
+                                  @Param("action") String action,
+                                  @Param("swipeDate") LocalDate swipeDate);
+
+    // Moves the sequence past ids handed out by the former IDENTITY column, leaving it alone once it is ahead
+    @Transactional
+    @Query(value = "SELECT setval('swipe_history_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM swipe_history) + 50, "
+            + "(SELECT last_value FROM swipe_history_seq)))", nativeQuery = true)
+    long alignIdSequence();
 }
@@ -0,0 +1,9 @@
+package com.bartr.matching.domain.repositories;
+
+import java.util.UUID;
+
+/**
+ * A (user, other user) row from a bulk lookup, such as a swipe or a match adjacency.
+ */
+public record UserPair(UUID userId, UUID otherUserId) {
+}
@@ -0,0 +1,9 @@
+package com.bartr.matching.domain.repositories;
+
+import com.bartr.matching.domain.entity.UserSyncCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserSyncCheckpointRepository extends JpaRepository<UserSyncCheckpoint, String> {
+}
@@ -0,0 +1,28 @@
+package com.bartr.matching.messaging;
+
+import com.bartr.matching.avro.NewCandidate;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@AllArgsConstructor
+public class CandidateEventProducer {
+
+    public static final String CANDIDATE_TOPIC = "candidate_topic";
+
+    private final KafkaTemplate<String, NewCandidate> kafkaTemplate;
+
+    // Keyed by recipientId so a user's alerts are delivered in order
+    public void sendMessage(NewCandidate event) {
+        kafkaTemplate.send(CANDIDATE_TOPIC, event.getRecipientId().toString(), event)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("Failed to publish new candidate {} for user {}: {}",
+                                event.getCandidateId(), event.getRecipientId(), ex.getMessage());
+                    }
+                });
+    }
+}
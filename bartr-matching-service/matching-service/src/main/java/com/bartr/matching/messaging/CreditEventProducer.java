@@ -0,0 +1,28 @@
+package com.bartr.matching.messaging;
+
+import com.bartr.common.kafka.avro.CreditAwarded;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@AllArgsConstructor
+public class CreditEventProducer {
+
+    public static final String CREDIT_TOPIC = "credit_topic";
+
+    private final KafkaTemplate<String, CreditAwarded> kafkaTemplate;
+
+    // Keyed by userId so one consumer sees all of a user's awards and can sum them
+    public void sendMessage(CreditAwarded event) {
+        kafkaTemplate.send(CREDIT_TOPIC, event.getUserId().toString(), event)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("Failed to publish {} credits for user {}: {}",
+                                event.getAmount(), event.getUserId(), ex.getMessage());
+                    }
+                });
+    }
+}
@@ -2,16 +2,19 @@ package com.bartr.matching.messaging;
 
 import com.bartr.matching.avro.MatchEvent;
 import lombok.AllArgsConstructor;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 import org.springframework.kafka.core.KafkaTemplate;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @AllArgsConstructor
 public class MatchEventProducer {
 
     private final KafkaTemplate<String, MatchEvent>  kafkaTemplate;
 
-    public void sendMessage(MatchEvent event){
-        kafkaTemplate.send("matched_topic", event);
+    public CompletableFuture<SendResult<String, MatchEvent>> sendMessage(MatchEvent event){
+        return kafkaTemplate.send("matched_topic", event);
     }
 }
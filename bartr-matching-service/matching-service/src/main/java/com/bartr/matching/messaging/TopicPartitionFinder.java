@@ -0,0 +1,25 @@
+package com.bartr.matching.messaging;
+
+import lombok.AllArgsConstructor;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lists a topic's partitions for listeners that assign themselves every partition instead of joining a
+ * consumer group. Partitions added to the topic later are only picked up on the next start.
+ */
+@Component
+@AllArgsConstructor
+public class TopicPartitionFinder {
+
+    private ConsumerFactory<?, ?> consumerFactory;
+
+    public String[] partitions(String topic) {
+        try (Consumer<?, ?> consumer = consumerFactory.createConsumer()) {
+            return consumer.partitionsFor(topic).stream()
+                    .map(partition -> String.valueOf(partition.partition()))
+                    .toArray(String[]::new);
+        }
+    }
+}
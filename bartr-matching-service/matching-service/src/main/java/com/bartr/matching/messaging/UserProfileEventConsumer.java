@@ -0,0 +1,100 @@
+package com.bartr.matching.messaging;
+
+import com.bartr.matching.UserDocument;
+import com.bartr.matching.application.service.UserSyncService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.generic.GenericRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Profile events from user-service. Each event is consumed twice: once in the shared {@code matching-app}
+ * group, where one instance updates the shared state (Elasticsearch, the precomputed feeds, alerts), and
+ * once by a listener that assigns itself every partition without a consumer group, so every instance
+ * updates its in-memory skill index and feed cache. Having no group, those listeners commit no offsets
+ * and leave nothing behind on the broker; they start from the end of each partition, since the skill
+ * index is loaded by the full sync on startup and only needs the changes from then on. Deletions leave a tombstone that
+ * drops any change of the same user consumed after them, see {@link UserSyncService#applyProfileChange}.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+public class UserProfileEventConsumer {
+
+    private static final String CHANGED_TOPIC = "user_profile_changed_topic";
+    private static final String DELETED_TOPIC = "user_profile_deleted_topic";
+
+    private UserSyncService userSyncService;
+
+    @KafkaListener(topics = CHANGED_TOPIC, groupId = "matching-app")
+    public void consumeChanged(GenericRecord record) {
+        userSyncService.applyProfileChange(toDocument(record));
+    }
+
+    @KafkaListener(topicPartitions = @TopicPartition(topic = CHANGED_TOPIC,
+            partitions = "#{@topicPartitionFinder.partitions('" + CHANGED_TOPIC + "')}"),
+            properties = "auto.offset.reset=latest")
+    public void refreshChanged(GenericRecord record) {
+        userSyncService.refreshProfile(toDocument(record));
+    }
+
+    @KafkaListener(topics = DELETED_TOPIC, groupId = "matching-app")
+    public void consumeDeleted(GenericRecord record) {
+        userSyncService.removeUser(UUID.fromString(record.get("keycloakId").toString()), deletedAt(record));
+    }
+
+    @KafkaListener(topicPartitions = @TopicPartition(topic = DELETED_TOPIC,
+            partitions = "#{@topicPartitionFinder.partitions('" + DELETED_TOPIC + "')}"),
+            properties = "auto.offset.reset=latest")
+    public void refreshDeleted(GenericRecord record) {
+        userSyncService.forgetUser(UUID.fromString(record.get("keycloakId").toString()), deletedAt(record));
+    }
+
+    private static Instant deletedAt(GenericRecord record) {
+        try {
+            return Instant.parse(record.get("deletedTimestamp").toString());
+        } catch (Exception e) {
+            return Instant.now();
+        }
+    }
+
+    private static UserDocument toDocument(GenericRecord record) {
+        return UserDocument.builder()
+                .keycloakId(UUID.fromString(record.get("keycloakId").toString()))
+                .firstName(asString(record.get("firstName")))
+                .lastName(asString(record.get("lastName")))
+                .gender(asString(record.get("gender")))
+                .userName(asString(record.get("userName")))
+                .email(asString(record.get("email")))
+                .skillsOffered(asStringList(record.get("skillsOffered")))
+                .skillsWanted(asStringList(record.get("skillsWanted")))
+                .build();
+    }
+
+    private static String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    // Avro hands strings back as Utf8, so each element is converted to a plain String
+    private static List<String> asStringList(Object value) {
+        if (!(value instanceof Collection<?> values)) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>(values.size());
+        for (Object item : values) {
+            if (item != null) {
+                result.add(item.toString());
+            }
+        }
+        return result;
+    }
+}
@@ -1,23 +1,64 @@
 package com.bartr.matching.utility;
 
+import com.bartr.common.kafka.avro.CreditAwarded;
 import com.bartr.matching.avro.MatchEvent;
-import com.bartr.matching.messaging.MatchEventProducer;
+import com.bartr.matching.avro.NewCandidate;
+import com.bartr.matching.domain.entity.MatchEventOutbox;
+import com.bartr.matching.domain.repositories.MatchEventOutboxRepository;
+import com.bartr.matching.messaging.CandidateEventProducer;
+import com.bartr.matching.messaging.CreditEventProducer;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 @Component
 @AllArgsConstructor
 public class EventProducerUtility {
-    private MatchEventProducer matchEventProducer;
+    private MatchEventOutboxRepository matchEventOutboxRepository;
+    private CreditEventProducer creditEventProducer;
+    private CandidateEventProducer candidateEventProducer;
 
+    /**
+     * Writes the match event to the outbox in the caller's transaction; the outbox relay publishes it
+     * once that transaction has committed.
+     */
     public void sendMatchEvent(UUID user1Id, UUID user2Id) {
+        Instant now = Instant.now();
+        matchEventOutboxRepository.save(MatchEventOutbox.builder()
+                .user1Id(user1Id)
+                .user2Id(user2Id)
+                .matchedAt(now)
+                .createdAt(now)
+                .build());
+    }
+
+    public MatchEvent toMatchEvent(MatchEventOutbox outbox) {
         MatchEvent event = new MatchEvent();
-        event.setUser1Id(user1Id.toString());
-        event.setUser2Id(user2Id.toString());
-        event.setMatchedTimestamp(Instant.now().toString());
-        matchEventProducer.sendMessage(event);
+        event.setUser1Id(outbox.getUser1Id().toString());
+        event.setUser2Id(outbox.getUser2Id().toString());
+        event.setMatchedTimestamp(outbox.getMatchedAt().toString());
+        return event;
+    }
+
+    public void sendCreditAwarded(UUID userId, int amount, String reason) {
+        CreditAwarded event = new CreditAwarded();
+        event.setEventId(UUID.randomUUID().toString());
+        event.setUserId(userId.toString());
+        event.setAmount(amount);
+        event.setReason(reason);
+        event.setAwardedTimestamp(Instant.now().toString());
+        creditEventProducer.sendMessage(event);
+    }
+
+    public void sendNewCandidate(UUID recipientId, UUID candidateId, List<String> skills) {
+        NewCandidate event = new NewCandidate();
+        event.setRecipientId(recipientId.toString());
+        event.setCandidateId(candidateId.toString());
+        event.setSkills(List.<CharSequence>copyOf(skills));
+        event.setCreatedTimestamp(Instant.now().toString());
+        candidateEventProducer.sendMessage(event);
     }
 }
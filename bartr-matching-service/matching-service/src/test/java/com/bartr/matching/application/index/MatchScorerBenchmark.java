@@ -0,0 +1,93 @@
+package com.bartr.matching.application.index;
+
+import com.bartr.matching.UserDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * {@link MatchScorer#topMatches} against the stable sort-and-limit it replaced, at fallback-sized
+ * candidate lists. Only compiled with the {@code benchmark} profile:
+ * {@code mvn -Pbenchmark test-compile exec:exec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatchScorerBenchmark {
+
+    private static final int TOP_MATCHES_SIZE = 20;
+    private static final int SKILL_POOL = 500;
+
+    @Param({"10000", "100000"})
+    private int candidateCount;
+
+    private UserDocument user;
+    private List<UserDocument> candidates;
+    private Predicate<UserDocument> eligible;
+    private MatchScorer sequential;
+    private MatchScorer parallel;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        user = randomUser(random);
+        candidates = new ArrayList<>(candidateCount);
+        for (int i = 0; i < candidateCount; i++) {
+            candidates.add(randomUser(random));
+        }
+        eligible = candidate -> candidate.getKeycloakId().hashCode() % 10 != 0;
+        sequential = new MatchScorer(Integer.MAX_VALUE);
+        // The production default
+        parallel = new MatchScorer(20_000);
+    }
+
+    @Benchmark
+    public List<UserDocument> sortAndLimit() {
+        return candidates.stream()
+                .filter(eligible)
+                .sorted(Comparator.comparingInt((UserDocument c) -> sequential.score(user, c)).reversed())
+                .limit(TOP_MATCHES_SIZE)
+                .toList();
+    }
+
+    @Benchmark
+    public List<UserDocument> topMatchesSequential() {
+        return sequential.topMatches(user, candidates, eligible, TOP_MATCHES_SIZE);
+    }
+
+    @Benchmark
+    public List<UserDocument> topMatchesParallel() {
+        return parallel.topMatches(user, candidates, eligible, TOP_MATCHES_SIZE);
+    }
+
+    private static UserDocument randomUser(SplittableRandom random) {
+        return UserDocument.builder()
+                .keycloakId(UUID.randomUUID())
+                .skillsOfferedIds(randomSkills(random))
+                .skillsWantedIds(randomSkills(random))
+                .build();
+    }
+
+    private static int[] randomSkills(SplittableRandom random) {
+        return random.ints(random.nextInt(1, 8), 0, SKILL_POOL).distinct().sorted().toArray();
+    }
+}
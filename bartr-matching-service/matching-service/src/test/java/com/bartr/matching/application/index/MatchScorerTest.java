@@ -0,0 +1,175 @@
+package com.bartr.matching.application.index;
+
+import com.bartr.matching.UserDocument;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that {@link MatchScorer} scores and ranks exactly like the name-based scoring and stable
+ * sort-and-limit it replaced, on both sides of the parallel threshold. Skills are drawn from a small pool
+ * so scores tie constantly.
+ */
+class MatchScorerTest {
+
+    private static final int SKILL_POOL = 24;
+
+    @Test
+    void scoresMatchNameBasedScoring() {
+        MatchScorer scorer = new MatchScorer(Integer.MAX_VALUE);
+        SplittableRandom random = new SplittableRandom(2);
+        for (int i = 0; i < 10_000; i++) {
+            UserDocument user = randomUser(random);
+            UserDocument candidate = randomUser(random);
+            assertThat((double) scorer.score(user, candidate)).isEqualTo(scoreMatch(user, candidate));
+        }
+    }
+
+    @Test
+    void sequentialRankingMatchesSortAndLimit() {
+        MatchScorer scorer = new MatchScorer(Integer.MAX_VALUE);
+        for (long seed = 1; seed <= 20; seed++) {
+            assertSameRanking(scorer, seed, 2_000, 20);
+        }
+    }
+
+    @Test
+    void parallelRankingMatchesSortAndLimit() {
+        // Spans several fork-join leaves, so slices are merged
+        MatchScorer scorer = new MatchScorer(1);
+        assertSameRanking(scorer, 7, 10_000, 20);
+        assertSameRanking(scorer, 8, 100_000, 20);
+        assertSameRanking(scorer, 9, 100_000, 500);
+    }
+
+    @Test
+    void rankingAtTheParallelThresholdMatchesSortAndLimit() {
+        MatchScorer scorer = new MatchScorer(20_000);
+        assertSameRanking(scorer, 11, 19_999, 20);
+        assertSameRanking(scorer, 12, 20_000, 20);
+    }
+
+    @Test
+    void allTiedCandidatesKeepInputOrder() {
+        UserDocument user = user(new int[]{1}, new int[]{2});
+        List<UserDocument> candidates = IntStream.range(0, 50_000)
+                .mapToObj(i -> user(new int[]{2}, new int[]{1}))
+                .toList();
+        for (MatchScorer scorer : List.of(new MatchScorer(Integer.MAX_VALUE), new MatchScorer(1))) {
+            assertThat(scorer.topMatches(user, candidates, c -> true, 20))
+                    .containsExactlyElementsOf(candidates.subList(0, 20));
+        }
+    }
+
+    @Test
+    void fewerEligibleCandidatesThanK() {
+        UserDocument user = randomUser(new SplittableRandom(3));
+        List<UserDocument> candidates = randomCandidates(new SplittableRandom(4), 30);
+        MatchScorer scorer = new MatchScorer(Integer.MAX_VALUE);
+
+        assertThat(scorer.topMatches(user, candidates, c -> true, 100))
+                .containsExactlyElementsOf(sortAndLimit(user, candidates, c -> true, 100));
+        assertThat(scorer.topMatches(user, candidates, c -> true, 0)).isEmpty();
+        assertThat(scorer.topMatches(user, List.of(), c -> true, 20)).isEmpty();
+    }
+
+    @Test
+    void nonRandomAccessCandidates() {
+        SplittableRandom random = new SplittableRandom(5);
+        UserDocument user = randomUser(random);
+        List<UserDocument> candidates = new LinkedList<>(randomCandidates(random, 5_000));
+        MatchScorer scorer = new MatchScorer(1);
+
+        assertThat(scorer.topMatches(user, candidates, c -> true, 20))
+                .containsExactlyElementsOf(sortAndLimit(user, candidates, c -> true, 20));
+    }
+
+    private static void assertSameRanking(MatchScorer scorer, long seed, int candidateCount, int k) {
+        SplittableRandom random = new SplittableRandom(seed);
+        UserDocument user = randomUser(random);
+        List<UserDocument> candidates = randomCandidates(random, candidateCount);
+        // Drops roughly a third, as the exclusion set would
+        Predicate<UserDocument> eligible = c -> c.getKeycloakId().hashCode() % 3 != 0;
+
+        assertThat(scorer.topMatches(user, candidates, eligible, k))
+                .as("seed %d, %d candidates, k %d", seed, candidateCount, k)
+                .containsExactlyElementsOf(sortAndLimit(user, candidates, eligible, k));
+    }
+
+    // The ranking before TopKSelector: a stable sort by descending name-based score, then the first k
+    private static List<UserDocument> sortAndLimit(UserDocument user, List<UserDocument> candidates,
+                                                   Predicate<UserDocument> eligible, int k) {
+        return candidates.stream()
+                .filter(eligible)
+                .map(c -> Map.entry(c, scoreMatch(user, c)))
+                .sorted((a, b) -> Double.compare(b.getValue(), a.getValue()))
+                .limit(k)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    // The scoring before skill IDs, on the skill names: 10 per wanted skill the candidate offers and
+    // 5 per offered skill the candidate wants
+    private static double scoreMatch(UserDocument user, UserDocument candidate) {
+        double score = 0.0;
+        Set<String> userOffered = new HashSet<>(user.getSkillsOffered());
+        Set<String> userWanted = new HashSet<>(user.getSkillsWanted());
+        Set<String> candidateOffered = new HashSet<>(candidate.getSkillsOffered());
+        Set<String> candidateWanted = new HashSet<>(candidate.getSkillsWanted());
+
+        for (String skill : userWanted) {
+            if (candidateOffered.contains(skill)) {
+                score += 10;
+            }
+        }
+        for (String skill : candidateWanted) {
+            if (userOffered.contains(skill)) {
+                score += 5;
+            }
+        }
+        return score;
+    }
+
+    private static List<UserDocument> randomCandidates(SplittableRandom random, int count) {
+        List<UserDocument> candidates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            candidates.add(randomUser(random));
+        }
+        return candidates;
+    }
+
+    private static UserDocument randomUser(SplittableRandom random) {
+        return user(randomSkills(random), randomSkills(random));
+    }
+
+    private static int[] randomSkills(SplittableRandom random) {
+        return random.ints(random.nextInt(0, 6), 0, SKILL_POOL).distinct().sorted().toArray();
+    }
+
+    private static UserDocument user(int[] offeredIds, int[] wantedIds) {
+        return UserDocument.builder()
+                .keycloakId(UUID.randomUUID())
+                .skillsOffered(skillNames(offeredIds))
+                .skillsWanted(skillNames(wantedIds))
+                .skillsOfferedIds(offeredIds)
+                .skillsWantedIds(wantedIds)
+                .build();
+    }
+
+    // One name per ID, as the skill dictionary assigns them
+    private static List<String> skillNames(int[] ids) {
+        return Arrays.stream(ids).mapToObj(id -> "skill-" + id).toList();
+    }
+}
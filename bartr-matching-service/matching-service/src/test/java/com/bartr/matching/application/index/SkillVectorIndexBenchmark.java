@@ -0,0 +1,77 @@
+package com.bartr.matching.application.index;
+
+import com.bartr.matching.UserDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Top-match latency of the exact path (skill index union scored by {@link MatchScorer}) and the ANN path
+ * over the same synthetic user base as {@link SkillVectorIndexTest}, which checks their recall. Only
+ * compiled with the {@code benchmark} profile: {@code mvn -Pbenchmark test-compile exec:exec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SkillVectorIndexBenchmark {
+
+    private static final int QUERIES = 256;
+
+    @Param({"20000", "100000"})
+    private int userCount;
+
+    private SkillIndex skillIndex;
+    private MatchScorer matchScorer;
+    private SkillVectorIndex skillVectorIndex;
+    private List<UserDocument> users;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        skillIndex = SkillVectorIndexTest.index(userCount, new Random(1));
+        matchScorer = new MatchScorer(20_000);
+        skillVectorIndex = new SkillVectorIndex(skillIndex, matchScorer, new SimpleMeterRegistry(), 16, 100, 64, 0);
+        skillVectorIndex.rebuild();
+        users = skillIndex.documents();
+    }
+
+    @Benchmark
+    public List<UserDocument> exact() {
+        UserDocument user = nextUser();
+        return matchScorer.topMatches(user, skillIndex.search(user.getSkillsWantedIds(), user.getSkillsOfferedIds()),
+                notSelf(user), SkillVectorIndex.EVALUATION_K);
+    }
+
+    @Benchmark
+    public List<UserDocument> ann() {
+        UserDocument user = nextUser();
+        return skillVectorIndex.topMatches(user, notSelf(user), SkillVectorIndex.EVALUATION_K);
+    }
+
+    // Cycles through an evenly spread sample so both paths see the same queries
+    private UserDocument nextUser() {
+        next = (next + 1) % QUERIES;
+        return users.get(next * (users.size() / QUERIES));
+    }
+
+    private static Predicate<UserDocument> notSelf(UserDocument user) {
+        return candidate -> !candidate.getKeycloakId().equals(user.getKeycloakId());
+    }
+}
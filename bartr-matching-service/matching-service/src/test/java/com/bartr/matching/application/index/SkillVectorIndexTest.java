@@ -0,0 +1,88 @@
+package com.bartr.matching.application.index;
+
+import com.bartr.matching.UserDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recall of the ANN path against the exact path on a synthetic user base whose skill popularity is
+ * skewed like real profiles. Latency is measured by {@link SkillVectorIndexBenchmark}.
+ */
+class SkillVectorIndexTest {
+
+    static final int SKILLS = 300;
+    private static final int USERS = 5_000;
+
+    private static SkillIndex skillIndex;
+    private static SimpleMeterRegistry meterRegistry;
+    private static SkillVectorIndex skillVectorIndex;
+
+    @BeforeAll
+    static void buildIndex() {
+        skillIndex = index(USERS, new Random(1));
+        meterRegistry = new SimpleMeterRegistry();
+        skillVectorIndex = new SkillVectorIndex(skillIndex, new MatchScorer(20_000), meterRegistry, 16, 100, 64, 200);
+        skillVectorIndex.rebuild();
+    }
+
+    @Test
+    void recallAgainstExactRanking() {
+        skillVectorIndex.evaluate();
+
+        assertThat(meterRegistry.get("matching.ann.recall").gauge().value()).isGreaterThanOrEqualTo(0.95);
+    }
+
+    @Test
+    void resultsAreEligibleAndOverlapping() {
+        MatchScorer matchScorer = new MatchScorer(20_000);
+        List<UserDocument> users = skillIndex.documents();
+        UserDocument user = users.get(0);
+        Set<UUID> excluded = users.stream()
+                .limit(500)
+                .map(UserDocument::getKeycloakId)
+                .collect(Collectors.toSet());
+        Predicate<UserDocument> eligible = candidate -> !excluded.contains(candidate.getKeycloakId());
+
+        List<UserDocument> results = skillVectorIndex.topMatches(user, eligible, SkillVectorIndex.EVALUATION_K);
+
+        assertThat(results).isNotEmpty().allMatch(eligible);
+        assertThat(results).allMatch(candidate -> matchScorer.score(user, candidate) > 0);
+    }
+
+    static SkillIndex index(int users, Random random) {
+        SkillIndex index = new SkillIndex(new SkillDictionary(null, null), false, "unused");
+        List<UserDocument> documents = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            documents.add(UserDocument.builder()
+                    .keycloakId(UUID.randomUUID())
+                    .skillsOfferedIds(skills(random))
+                    .skillsWantedIds(skills(random))
+                    .build());
+        }
+        // The ID arrays are set, so the dictionary is never consulted
+        index.indexAll(documents);
+        return index;
+    }
+
+    // One to four distinct skills, low IDs far more popular than high ones
+    private static int[] skills(Random random) {
+        int count = 1 + random.nextInt(4);
+        TreeSet<Integer> ids = new TreeSet<>();
+        while (ids.size() < count) {
+            ids.add((int) Math.min(SKILLS - 1, Math.abs(random.nextGaussian()) * SKILLS / 3));
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
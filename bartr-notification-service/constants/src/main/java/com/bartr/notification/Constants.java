@@ -10,6 +10,7 @@ public class Constants {
     public static final int FOUR = 4;
     public static final String NEW_MATCH = "NEW_MATCH";
     public static final String NEW_MESSAGE = "NEW_MESSAGE";
+    public static final String NEW_CANDIDATE = "NEW_CANDIDATE";
 
 
 }
@@ -41,7 +41,8 @@ public class NotificationController {
             List<Notification> notifications = new ArrayList<>();
             for (Document doc : documents) {
                 Notification notification = new Notification();
-                notification.setId(doc.getObjectId("_id").toString());
+                // Match notifications carry a UUID string derived from the match instead of an ObjectId
+                notification.setId(doc.get("_id").toString());
                 notification.setType(doc.getString("type"));
                 notification.setMessage(doc.getString("message"));
                 notification.setUserId(doc.getString("userId"));
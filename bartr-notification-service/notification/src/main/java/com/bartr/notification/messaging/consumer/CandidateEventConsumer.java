@@ -0,0 +1,66 @@
+package com.bartr.notification.messaging.consumer;
+
+import com.bartr.notification.domain.entities.Notification;
+import com.bartr.notification.domain.repositories.NotificationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.generic.GenericRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.bartr.notification.Constants.NEW_CANDIDATE;
+
+/**
+ * Pushes matching-service's reverse-match alerts: a profile now offers a skill the recipient wants.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CandidateEventConsumer {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationRepository notificationRepository;
+
+    @KafkaListener(topics = "candidate_topic", groupId = "notification-app")
+    public void consume(GenericRecord record) {
+        try {
+            String recipientId = record.get("recipientId").toString();
+            String candidateId = record.get("candidateId").toString();
+
+            List<String> skills = new ArrayList<>();
+            Object skillsObj = record.get("skills");
+            if (skillsObj instanceof Iterable<?> values) {
+                for (Object value : values) {
+                    skills.add(value.toString());
+                }
+            }
+
+            Map<String, Object> payloadMap = new HashMap<>();
+            payloadMap.put("candidateId", candidateId);
+            payloadMap.put("skills", skills);
+            payloadMap.put("createdTimestamp", record.get("createdTimestamp").toString());
+
+            Notification notification = new Notification();
+            notification.setType(NEW_CANDIDATE);
+            notification.setMessage(skills.isEmpty()
+                    ? "Someone new offers a skill you want"
+                    : "Someone new offers " + String.join(", ", skills));
+            notification.setUserId(recipientId);
+            notification.setPayload(payloadMap);
+            notification.setTimestamp(Instant.now());
+            notification.setRead(false);
+            notificationRepository.save(notification);
+
+            messagingTemplate.convertAndSend("/topic/notifications/" + recipientId, notification);
+        } catch (Exception e) {
+            log.error("Error processing new candidate event: {}", e.getMessage(), e);
+        }
+    }
+}
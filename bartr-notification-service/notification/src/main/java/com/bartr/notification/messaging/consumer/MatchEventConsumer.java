@@ -1,16 +1,18 @@
 package com.bartr.notification.messaging.consumer;
 
-import com.bartr.notification.UserServiceClient;
 import com.bartr.notification.domain.entities.Notification;
 import com.bartr.notification.domain.repositories.NotificationRepository;
+import com.bartr.notification.messaging.producer.CreditEventProducer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.util.Utf8;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
@@ -25,51 +27,61 @@ public class MatchEventConsumer {
 
     private final SimpMessagingTemplate messagingTemplate;
     private final NotificationRepository notificationRepository;
-    private final UserServiceClient userServiceClient;
+    private final CreditEventProducer creditEventProducer;
 
     @KafkaListener(topics = "matched_topic", groupId = "notification-app")
     public void consume(GenericRecord record) {
         String user1Id = record.get("user1Id").toString();
         String user2Id = record.get("user2Id").toString();
 
-        // Give 5 credits to each user for matching
+        // Give 5 credits to each user for matching; user-service applies them from credit_topic.
+        // The event IDs derive from the match, so a redelivered match event awards nothing twice
+        String matchKey = user1Id + ":" + user2Id + ":" + record.get("matchedTimestamp");
         try {
-            userServiceClient.addCredits(UUID.fromString(user1Id), 5);
+            creditEventProducer.sendCreditAwarded(creditEventId(matchKey, user1Id), user1Id, 5, "MATCH");
+            creditEventProducer.sendCreditAwarded(creditEventId(matchKey, user2Id), user2Id, 5, "MATCH");
         } catch (Exception e) {
-            log.warn("Failed to add credits to user {} for matching: {}", user1Id, e.getMessage());
-        }
-
-        try {
-            userServiceClient.addCredits(UUID.fromString(user2Id), 5);
-        } catch (Exception e) {
-            log.warn("Failed to add credits to user {} for matching: {}", user2Id, e.getMessage());
+            log.warn("Failed to publish match credits for users {} and {}: {}", user1Id, user2Id, e.getMessage());
         }
 
         // Convert GenericRecord to Map for JSON serialization
         Map<String, Object> payloadMap = convertGenericRecordToMap(record);
         
-        Notification notification1 = new Notification();
-        notification1.setType(NEW_MATCH);
-        notification1.setMessage("You have a new match");
-        notification1.setUserId(user1Id);
-        notification1.setPayload(payloadMap);
-        notification1.setTimestamp(Instant.now());
-        notification1.setRead(false);
-        notificationRepository.save(notification1);
+        notifyMatch(matchKey, user1Id, payloadMap);
+        notifyMatch(matchKey, user2Id, payloadMap);
+    }
+
+    /**
+     * The notification ID derives from the match as well. insert fails on an existing ID where save would
+     * overwrite it, so a redelivered event neither resets the read flag nor pushes the match again.
+     */
+    private void notifyMatch(String matchKey, String userId, Map<String, Object> payloadMap) {
+        Notification notification = new Notification();
+        notification.setId(notificationId(matchKey, userId).toString());
+        notification.setType(NEW_MATCH);
+        notification.setMessage("You have a new match");
+        notification.setUserId(userId);
+        notification.setPayload(payloadMap);
+        notification.setTimestamp(Instant.now());
+        notification.setRead(false);
+        try {
+            notificationRepository.insert(notification);
+        } catch (DuplicateKeyException e) {
+            log.info("Match notification {} for user {} already exists, skipping", notification.getId(), userId);
+            return;
+        }
 
-        Notification notification2 = new Notification();
-        notification2.setType(NEW_MATCH);
-        notification2.setMessage("You have a new match");
-        notification2.setUserId(user2Id);
-        notification2.setPayload(payloadMap);
-        notification2.setTimestamp(Instant.now());
-        notification2.setRead(false);
-        notificationRepository.save(notification2);
+        messagingTemplate.convertAndSend("/topic/notifications/" + userId, notification);
+    }
 
-        messagingTemplate.convertAndSend("/topic/notifications/" + user1Id, notification1);
-        messagingTemplate.convertAndSend("/topic/notifications/" + user2Id, notification2);
+    private static UUID creditEventId(String matchKey, String userId) {
+        return UUID.nameUUIDFromBytes(("MATCH:" + matchKey + ":" + userId).getBytes(StandardCharsets.UTF_8));
     }
-    
+
+    private static UUID notificationId(String matchKey, String userId) {
+        return UUID.nameUUIDFromBytes(("NEW_MATCH:" + matchKey + ":" + userId).getBytes(StandardCharsets.UTF_8));
+    }
+
     /**
      * Converts a GenericRecord to a Map for JSON serialization.
      * This avoids Jackson serialization issues with Avro schema objects.
@@ -0,0 +1,34 @@
+package com.bartr.notification.messaging.producer;
+
+import com.bartr.common.kafka.avro.CreditAwarded;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CreditEventProducer {
+
+    private final KafkaTemplate<String, CreditAwarded> kafkaTemplate;
+
+    // Keyed by userId so one user-service consumer sees all of a user's awards and can sum them
+    public void sendCreditAwarded(UUID eventId, String userId, int amount, String reason) {
+        CreditAwarded event = new CreditAwarded();
+        event.setEventId(eventId.toString());
+        event.setUserId(userId);
+        event.setAmount(amount);
+        event.setReason(reason);
+        event.setAwardedTimestamp(Instant.now().toString());
+        kafkaTemplate.send("credit_topic", userId, event)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.warn("Failed to publish {} credits for user {}: {}", amount, userId, ex.getMessage());
+                    }
+                });
+    }
+}
@@ -0,0 +1,17 @@
+package com.bartr.user.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditBalanceResponse {
+    private UUID keycloakId;
+    private int credits;
+}
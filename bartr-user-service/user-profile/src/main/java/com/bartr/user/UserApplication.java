@@ -2,7 +2,9 @@ package com.bartr.user;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+@EnableScheduling
 @SpringBootApplication(scanBasePackages = {"com.bartr.user", "com.bartr.common.security"})
 public class UserApplication {
 
@@ -0,0 +1,47 @@
+package com.bartr.user.application.scheduler;
+
+import com.bartr.user.application.service.UserProfileService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically folds pending credit_ledger rows into user_profile.credits. Each pass takes one batch
+ * in its own transaction, so a large backlog is worked off without holding profile locks for long.
+ */
+@Component
+@Slf4j
+public class CreditLedgerCompactor {
+
+    private final UserProfileService userProfileService;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    public CreditLedgerCompactor(UserProfileService userProfileService,
+                                 @Value("${user.credits.compaction.batch-size:5000}") int batchSize,
+                                 @Value("${user.credits.compaction.max-batches-per-run:20}") int maxBatchesPerRun) {
+        this.userProfileService = userProfileService;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatchesPerRun = Math.max(1, maxBatchesPerRun);
+    }
+
+    @Scheduled(fixedDelayString = "${user.credits.compaction.interval:PT5S}")
+    public void compact() {
+        try {
+            int updated = 0;
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                int profiles = userProfileService.compactCreditLedger(batchSize);
+                if (profiles == 0) {
+                    break;
+                }
+                updated += profiles;
+            }
+            if (updated > 0) {
+                log.debug("Compacted credit ledger into {} profile balances", updated);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to compact the credit ledger: {}", e.getMessage());
+        }
+    }
+}
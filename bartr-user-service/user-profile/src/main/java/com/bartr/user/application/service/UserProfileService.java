@@ -1,11 +1,14 @@
 package com.bartr.user.application.service;
 
 import com.bartr.user.ErrorMessages;
+import com.bartr.user.application.utility.EventProducerUtility;
 import com.bartr.user.application.utility.ExceptionUtility;
 import com.bartr.user.application.utility.Helper;
+import com.bartr.user.domain.entities.CreditLedgerEntry;
 import com.bartr.user.domain.entities.SkillsOffered;
 import com.bartr.user.domain.entities.SkillsWanted;
 import com.bartr.user.domain.entities.UserProfile;
+import com.bartr.user.domain.repositories.CreditLedgerRepository;
 import com.bartr.user.domain.repositories.SkillOfferedRepository;
 import com.bartr.user.domain.repositories.UserProfileRepository;
 import com.bartr.user.request.SignupRequest;
@@ -25,6 +28,7 @@ import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -37,23 +41,32 @@ public class UserProfileService {
     private final Keycloak keycloak;
     private final SkillOfferedRepository skillOfferedRepository;
     private final Helper helper;
+    private final EventProducerUtility eventProducerUtility;
+    private final CreditLedgerRepository creditLedgerRepository;
 
     @Autowired
     public UserProfileService(ExceptionUtility exceptionUtility,
                             UserProfileRepository userProfileRepository,
                             Keycloak keycloak,
                             SkillOfferedRepository skillOfferedRepository,
-                            Helper helper) {
+                            Helper helper,
+                            EventProducerUtility eventProducerUtility,
+                            CreditLedgerRepository creditLedgerRepository) {
         this.exceptionUtility = exceptionUtility;
         this.userProfileRepository = userProfileRepository;
         this.keycloak = keycloak;
         this.skillOfferedRepository = skillOfferedRepository;
         this.helper = helper;
+        this.eventProducerUtility = eventProducerUtility;
+        this.creditLedgerRepository = creditLedgerRepository;
     }
 
     @Value("${keycloak.realm}")
     private String realm;
 
+    @Value("${user.profile.max-batch-size:500}")
+    private int maxBatchSize;
+
     @Transactional(readOnly = true)
     public UserProfile getUserProfileByKeycloakId(UUID keycloakId) {
         Optional<UserProfile> profileOpt = userProfileRepository.findByKeycloakId(keycloakId);
@@ -79,6 +92,28 @@ public class UserProfileService {
         return userProfile;
     }
 
+    /**
+     * Loads many profiles with their skills in two queries, whatever the number of ids. Unknown ids are
+     * skipped, so the result may be shorter than the request.
+     */
+    @Transactional(readOnly = true)
+    public List<UserProfile> getUserProfilesByKeycloakIds(List<UUID> keycloakIds) {
+        if (keycloakIds == null) {
+            throw exceptionUtility.createServiceException(ErrorMessages.INVALID_REQUEST, "KeycloakIds cannot be null");
+        }
+        if (keycloakIds.size() > maxBatchSize) {
+            throw exceptionUtility.createServiceException(ErrorMessages.INVALID_REQUEST,
+                    "At most " + maxBatchSize + " keycloakIds can be requested at once");
+        }
+        Set<UUID> ids = keycloakIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<UserProfile> profiles = userProfileRepository.findAllByKeycloakIdInWithSkillsOffered(ids);
+        userProfileRepository.findAllByKeycloakIdInWithSkillsWanted(ids);
+        return profiles;
+    }
+
     @Transactional(readOnly = true)
     public UserProfile getUserProfile(Jwt jwt) {
         return userProfileRepository.findByKeycloakId(UUID.fromString(jwt.getSubject()))
@@ -92,7 +127,9 @@ public class UserProfileService {
         }
         UUID keycloakId = createUserInKeycloak(request);
 
-        return createUserInDb(request, keycloakId);
+        UserProfile userProfile = createUserInDb(request, keycloakId);
+        eventProducerUtility.sendUserProfileChanged(userProfile);
+        return userProfile;
     }
 
     private UUID createUserInKeycloak(SignupRequest request){
@@ -205,7 +242,9 @@ public class UserProfileService {
             userProfile.getSkillsWanted().addAll(skillsWanted);
         }
 
-        return userProfileRepository.save(userProfile);
+        UserProfile saved = userProfileRepository.save(userProfile);
+        eventProducerUtility.sendUserProfileChanged(saved);
+        return saved;
     }
 
     private void updateUserProfileInKeycloak(UpdateRequest request, Jwt jwt){
@@ -260,6 +299,7 @@ public class UserProfileService {
         userProfileRepository.saveAndFlush(userProfile);
 
         userProfileRepository.delete(userProfile);
+        eventProducerUtility.sendUserProfileDeleted(userProfile.getKeycloakId());
     }
 
     private void deleteUserFromKeycloak(String keycloakId) {
@@ -270,15 +310,30 @@ public class UserProfileService {
         }
     }
 
+    /**
+     * Pages through all profiles. With afterId only profiles with a larger id are returned and with untilId
+     * only profiles up to and including it, so a caller can walk disjoint id windows that a concurrent
+     * insert or delete cannot shift.
+     */
     @Transactional(readOnly = true)
-    public Page<UserProfile> getAllUserProfiles(Pageable pageable) {
+    public Page<UserProfile> getAllUserProfiles(Long afterId, Long untilId, Pageable pageable) {
         if (pageable == null) {
             throw exceptionUtility.createServiceException(ErrorMessages.INVALID_REQUEST, "Pageable cannot be null");
         }
-        return new PageImpl<>(userProfileRepository.findAll(pageable).stream()
+        Page<UserProfile> page;
+        if (afterId != null && untilId != null) {
+            page = userProfileRepository.findByIdGreaterThanAndIdLessThanEqual(afterId, untilId, pageable);
+        } else if (afterId != null) {
+            page = userProfileRepository.findByIdGreaterThan(afterId, pageable);
+        } else if (untilId != null) {
+            page = userProfileRepository.findByIdLessThanEqual(untilId, pageable);
+        } else {
+            page = userProfileRepository.findAll(pageable);
+        }
+        return new PageImpl<>(page.stream()
                 .collect(Collectors.toList()),
                 pageable,
-                userProfileRepository.findAll(pageable).getTotalElements());
+                page.getTotalElements());
     }
 
     @Transactional(readOnly = true)
@@ -286,16 +341,56 @@ public class UserProfileService {
         return userProfileRepository.count();
     }
 
+    /**
+     * Adds the credits with a single atomic update and records them in the ledger as already applied.
+     * Returns the new balance, including awards not yet compacted.
+     */
     @Transactional
-    public UserProfile addCredits(UUID keycloakId, int amount) {
+    public int addCredits(UUID keycloakId, int amount) {
         if (keycloakId == null) {
             throw exceptionUtility.createServiceException(ErrorMessages.INVALID_REQUEST, "KeycloakId cannot be null");
         }
         if (amount < 0) {
             throw exceptionUtility.createServiceException(ErrorMessages.INVALID_REQUEST, "Credit amount cannot be negative");
         }
-        UserProfile userProfile = getUserProfileByKeycloakId(keycloakId);
-        userProfile.setCredits(userProfile.getCredits() + amount);
-        return userProfileRepository.save(userProfile);
+        int balance = userProfileRepository.addCredits(keycloakId, amount)
+                .orElseThrow(() -> exceptionUtility.createServiceException(ErrorMessages.USER_PROFILE_NOT_FOUND));
+        Instant now = Instant.now();
+        creditLedgerRepository.save(CreditLedgerEntry.builder()
+                .keycloakId(keycloakId)
+                .amount(amount)
+                .reason("API")
+                .createdAt(now)
+                .compactedAt(now)
+                .build());
+        return balance;
+    }
+
+    /**
+     * Appends awards from credit_topic to the ledger in one insert; events already recorded are skipped.
+     * The balance picks them up on the next compaction.
+     */
+    @Transactional
+    public int recordCreditAwards(List<CreditLedgerEntry> awards) {
+        if (awards == null || awards.isEmpty()) {
+            return 0;
+        }
+        UUID[] eventIds = new UUID[awards.size()];
+        UUID[] keycloakIds = new UUID[awards.size()];
+        int[] amounts = new int[awards.size()];
+        String[] reasons = new String[awards.size()];
+        for (int i = 0; i < awards.size(); i++) {
+            CreditLedgerEntry award = awards.get(i);
+            eventIds[i] = award.getEventId();
+            keycloakIds[i] = award.getKeycloakId();
+            amounts[i] = award.getAmount();
+            reasons[i] = award.getReason();
+        }
+        return creditLedgerRepository.appendAll(eventIds, keycloakIds, amounts, reasons);
+    }
+
+    @Transactional
+    public int compactCreditLedger(int limit) {
+        return creditLedgerRepository.compactPending(limit);
     }
 }
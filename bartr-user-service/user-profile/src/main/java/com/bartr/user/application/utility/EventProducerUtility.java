@@ -0,0 +1,72 @@
+package com.bartr.user.application.utility;
+
+import com.bartr.user.avro.UserProfileChanged;
+import com.bartr.user.avro.UserProfileDeleted;
+import com.bartr.user.domain.entities.SkillsOffered;
+import com.bartr.user.domain.entities.SkillsWanted;
+import com.bartr.user.domain.entities.UserProfile;
+import com.bartr.user.messaging.UserProfileEventProducer;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Component
+@AllArgsConstructor
+public class EventProducerUtility {
+    private UserProfileEventProducer userProfileEventProducer;
+
+    /**
+     * Snapshots the profile now, while its skills can still be loaded, and publishes once the
+     * transaction commits so consumers never see a change that was rolled back.
+     */
+    public void sendUserProfileChanged(UserProfile userProfile) {
+        UserProfileChanged event = new UserProfileChanged();
+        event.setKeycloakId(userProfile.getKeycloakId().toString());
+        event.setFirstName(userProfile.getFirstName());
+        event.setLastName(userProfile.getLastName());
+        event.setGender(userProfile.getGender());
+        event.setUserName(userProfile.getUserName());
+        event.setEmail(userProfile.getEmail());
+        event.setSkillsOffered(userProfile.getSkillsOffered() != null
+                ? userProfile.getSkillsOffered().stream().map(SkillsOffered::getSkillName).filter(s -> s != null).map(s -> (CharSequence) s).toList()
+                : Collections.emptyList());
+        event.setSkillsWanted(userProfile.getSkillsWanted() != null
+                ? userProfile.getSkillsWanted().stream().map(SkillsWanted::getSkillName).filter(s -> s != null).map(s -> (CharSequence) s).toList()
+                : Collections.emptyList());
+        event.setChangedTimestamp(Instant.now().toString());
+        afterCommit(() -> userProfileEventProducer.sendChanged(event));
+    }
+
+    public void sendUserProfileDeleted(UUID keycloakId) {
+        UserProfileDeleted event = new UserProfileDeleted();
+        event.setKeycloakId(keycloakId.toString());
+        event.setDeletedTimestamp(Instant.now().toString());
+        afterCommit(() -> userProfileEventProducer.sendDeleted(event));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    action.run();
+                } catch (Exception e) {
+                    // The periodic reconciliation in matching-service repairs anything that is missed here
+                    log.warn("Failed to publish user profile event: {}", e.getMessage());
+                }
+            }
+        });
+    }
+}
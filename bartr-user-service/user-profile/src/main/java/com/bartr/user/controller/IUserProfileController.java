@@ -4,6 +4,7 @@ import com.bartr.user.ApiResponse;
 import com.bartr.user.domain.entities.UserProfile;
 import com.bartr.user.request.SignupRequest;
 import com.bartr.user.request.UpdateRequest;
+import com.bartr.user.response.CreditBalanceResponse;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -21,7 +22,12 @@ public interface IUserProfileController {
     public ResponseEntity<UserProfile> getUserProfileByKeycloakId(@RequestParam(name = "keycloakId") UUID keycloakId);
 
     @GetMapping("/all")
-    public ResponseEntity<Page<UserProfile>> getAllUserProfiles(Pageable pageable);
+    public ResponseEntity<Page<UserProfile>> getAllUserProfiles(@RequestParam(name = "afterId", required = false) Long afterId,
+                                                                @RequestParam(name = "untilId", required = false) Long untilId,
+                                                                Pageable pageable);
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<UserProfile>> getUserProfilesByKeycloakIds(@RequestBody List<UUID> keycloakIds);
 
     @GetMapping("/me")
     public UserProfile getUserProfile(@AuthenticationPrincipal Jwt jwt);
@@ -45,5 +51,5 @@ public interface IUserProfileController {
     public Long getActiveUsersCount();
 
     @PostMapping("/credits/add")
-    public ResponseEntity<UserProfile> addCredits(@RequestParam(name = "keycloakId") UUID keycloakId, @RequestParam(name = "amount") int amount);
+    public ResponseEntity<CreditBalanceResponse> addCredits(@RequestParam(name = "keycloakId") UUID keycloakId, @RequestParam(name = "amount") int amount);
 }
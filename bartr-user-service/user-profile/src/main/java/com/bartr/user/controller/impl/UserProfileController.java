@@ -7,6 +7,7 @@ import com.bartr.user.domain.entities.UserProfile;
 import com.bartr.user.facade.UserProfileFacade;
 import com.bartr.user.request.UpdateRequest;
 import com.bartr.user.request.SignupRequest;
+import com.bartr.user.response.CreditBalanceResponse;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,8 +34,14 @@ public class UserProfileController implements IUserProfileController {
     }
 
     @Override
-    public ResponseEntity<Page<UserProfile>> getAllUserProfiles(Pageable pageable) {
-        Page<UserProfile> response = userProfileFacade.getAllUserProfiles(pageable);
+    public ResponseEntity<Page<UserProfile>> getAllUserProfiles(Long afterId, Long untilId, Pageable pageable) {
+        Page<UserProfile> response = userProfileFacade.getAllUserProfiles(afterId, untilId, pageable);
+        return ResponseEntity.ok(response);
+    }
+
+    @Override
+    public ResponseEntity<List<UserProfile>> getUserProfilesByKeycloakIds(List<UUID> keycloakIds) {
+        List<UserProfile> response = userProfileFacade.getUserProfilesByKeycloakIds(keycloakIds);
         return ResponseEntity.ok(response);
     }
 
@@ -75,8 +82,8 @@ public class UserProfileController implements IUserProfileController {
     }
 
     @Override
-    public ResponseEntity<UserProfile> addCredits(UUID keycloakId, int amount) {
-        UserProfile response = userProfileFacade.addCredits(keycloakId, amount);
+    public ResponseEntity<CreditBalanceResponse> addCredits(UUID keycloakId, int amount) {
+        CreditBalanceResponse response = userProfileFacade.addCredits(keycloakId, amount);
         return ResponseEntity.ok(response);
     }
 
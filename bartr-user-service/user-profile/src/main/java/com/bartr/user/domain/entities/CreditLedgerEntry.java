@@ -0,0 +1,43 @@
+package com.bartr.user.domain.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One credit award. Rows are only ever inserted; compactedAt records when the amount was folded into
+ * user_profile.credits, and stays null until then.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "credit_ledger", indexes = {
+    @Index(name = "idx_credit_ledger_compacted_id", columnList = "compactedAt, id"),
+    @Index(name = "idx_credit_ledger_keycloak_id", columnList = "keycloakId")
+})
+public class CreditLedgerEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Set for awards from credit_topic so a redelivered event is recorded once
+    @Column(unique = true)
+    private UUID eventId;
+
+    @Column(nullable = false)
+    private UUID keycloakId;
+
+    private int amount;
+
+    private String reason;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    private Instant compactedAt;
+}
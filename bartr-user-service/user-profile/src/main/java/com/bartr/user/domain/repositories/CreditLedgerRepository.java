@@ -0,0 +1,39 @@
+package com.bartr.user.domain.repositories;
+
+import com.bartr.user.domain.entities.CreditLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface CreditLedgerRepository extends JpaRepository<CreditLedgerEntry, Long> {
+
+    // One statement for a whole batch of awards; the arguments are parallel arrays bound as Postgres arrays
+    @Modifying
+    @Query(value = "INSERT INTO credit_ledger (event_id, keycloak_id, amount, reason, created_at) "
+            + "SELECT t.event_id, t.keycloak_id, t.amount, t.reason, now() "
+            + "FROM unnest(CAST(:eventIds AS uuid[]), CAST(:keycloakIds AS uuid[]), "
+            + "CAST(:amounts AS int[]), CAST(:reasons AS text[])) AS t(event_id, keycloak_id, amount, reason) "
+            + "ON CONFLICT (event_id) DO NOTHING", nativeQuery = true)
+    int appendAll(@Param("eventIds") UUID[] eventIds, @Param("keycloakIds") UUID[] keycloakIds,
+                  @Param("amounts") int[] amounts, @Param("reasons") String[] reasons);
+
+    // Folds up to :limit pending rows into user_profile.credits, summed per user, and marks them compacted.
+    // Returns the number of profiles updated.
+    @Modifying
+    @Query(value = "WITH pending AS ("
+            + "  SELECT id FROM credit_ledger WHERE compacted_at IS NULL ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED"
+            + "), compacted AS ("
+            + "  UPDATE credit_ledger l SET compacted_at = now() FROM pending WHERE l.id = pending.id"
+            + "  RETURNING l.keycloak_id, l.amount"
+            + "), totals AS ("
+            + "  SELECT keycloak_id, SUM(amount) AS delta FROM compacted GROUP BY keycloak_id"
+            + ") "
+            + "UPDATE user_profile p SET credits = p.credits + t.delta FROM totals t WHERE p.keycloak_id = t.keycloak_id",
+            nativeQuery = true)
+    int compactPending(@Param("limit") int limit);
+}
@@ -1,11 +1,15 @@
 package com.bartr.user.domain.repositories;
 
 import com.bartr.user.domain.entities.UserProfile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -23,4 +27,24 @@ public interface UserProfileRepository extends JpaRepository<UserProfile, Long>
     // Separate query to fetch skills wanted
     @Query("SELECT u FROM UserProfile u LEFT JOIN FETCH u.skillsWanted WHERE u.keycloakId = :keycloakId")
     Optional<UserProfile> findByKeycloakIdWithSkillsWanted(@Param("keycloakId") UUID keycloakId);
+
+    Page<UserProfile> findByIdGreaterThan(Long id, Pageable pageable);
+
+    Page<UserProfile> findByIdLessThanEqual(Long id, Pageable pageable);
+
+    Page<UserProfile> findByIdGreaterThanAndIdLessThanEqual(Long afterId, Long untilId, Pageable pageable);
+
+    // Batch variants of the two skill fetches; run in one transaction they fill both lists of the same entities
+    @Query("SELECT DISTINCT u FROM UserProfile u LEFT JOIN FETCH u.skillsOffered WHERE u.keycloakId IN :keycloakIds")
+    List<UserProfile> findAllByKeycloakIdInWithSkillsOffered(@Param("keycloakIds") Collection<UUID> keycloakIds);
+
+    @Query("SELECT DISTINCT u FROM UserProfile u LEFT JOIN FETCH u.skillsWanted WHERE u.keycloakId IN :keycloakIds")
+    List<UserProfile> findAllByKeycloakIdInWithSkillsWanted(@Param("keycloakIds") Collection<UUID> keycloakIds);
+
+    // Atomic increment; the returned balance also counts awards still waiting in credit_ledger.
+    // Runs in the caller's transaction. Not @Modifying: RETURNING produces a row, which executeUpdate rejects.
+    @Query(value = "UPDATE user_profile SET credits = credits + :amount WHERE keycloak_id = :keycloakId "
+            + "RETURNING credits + (SELECT COALESCE(SUM(l.amount), 0) FROM credit_ledger l "
+            + "WHERE l.keycloak_id = :keycloakId AND l.compacted_at IS NULL)", nativeQuery = true)
+    Optional<Integer> addCredits(@Param("keycloakId") UUID keycloakId, @Param("amount") int amount);
 }
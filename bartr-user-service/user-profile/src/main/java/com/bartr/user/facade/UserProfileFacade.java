@@ -4,6 +4,7 @@ import com.bartr.user.application.service.UserProfileService;
 import com.bartr.user.domain.entities.UserProfile;
 import com.bartr.user.request.SignupRequest;
 import com.bartr.user.request.UpdateRequest;
+import com.bartr.user.response.CreditBalanceResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -43,15 +44,22 @@ public class UserProfileFacade {
         userProfileService.deleteUserProfileById(keycloakId);
     }
 
-    public Page<UserProfile> getAllUserProfiles(Pageable pageable) {
-        return userProfileService.getAllUserProfiles(pageable);
+    public List<UserProfile> getUserProfilesByKeycloakIds(List<UUID> keycloakIds) {
+        return userProfileService.getUserProfilesByKeycloakIds(keycloakIds);
+    }
+
+    public Page<UserProfile> getAllUserProfiles(Long afterId, Long untilId, Pageable pageable) {
+        return userProfileService.getAllUserProfiles(afterId, untilId, pageable);
     }
 
     public Long getActiveUsersCount() {
         return userProfileService.getActiveUsersCount();
     }
 
-    public UserProfile addCredits(UUID keycloakId, int amount) {
-        return userProfileService.addCredits(keycloakId, amount);
+    public CreditBalanceResponse addCredits(UUID keycloakId, int amount) {
+        return CreditBalanceResponse.builder()
+                .keycloakId(keycloakId)
+                .credits(userProfileService.addCredits(keycloakId, amount))
+                .build();
     }
 }
@@ -0,0 +1,63 @@
+package com.bartr.user.messaging;
+
+import com.bartr.user.application.service.UserProfileService;
+import com.bartr.user.domain.entities.CreditLedgerEntry;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.generic.GenericRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Records the credits matching, chat and notification award on credit_topic. Each poll is appended to
+ * credit_ledger with one insert; the ledger compaction then sums the awards per user into
+ * user_profile.credits, so a burst of swipes by one user never contends on their profile row.
+ *
+ * <p>There is no consumer-side window: batch size comes from fetch tuning alone. The broker holds a fetch
+ * until user.credits.fetch-min-bytes are available or user.credits.window milliseconds have passed
+ * (fetch.min.bytes and fetch.max.wait.ms), and a poll returns at most user.credits.max-batch records.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+public class CreditAwardedConsumer {
+
+    public static final String CREDIT_TOPIC = "credit_topic";
+
+    private UserProfileService userProfileService;
+
+    @KafkaListener(topics = CREDIT_TOPIC, groupId = "user-app", batch = "true",
+            properties = {
+                    "fetch.min.bytes=${user.credits.fetch-min-bytes:16384}",
+                    "fetch.max.wait.ms=${user.credits.window:500}",
+                    "max.poll.records=${user.credits.max-batch:500}"
+            })
+    public void consume(List<GenericRecord> records) {
+        List<CreditLedgerEntry> awards = new ArrayList<>(records.size());
+        for (GenericRecord record : records) {
+            try {
+                int amount = (Integer) record.get("amount");
+                if (amount <= 0) {
+                    continue;
+                }
+                awards.add(CreditLedgerEntry.builder()
+                        .eventId(UUID.fromString(record.get("eventId").toString()))
+                        .keycloakId(UUID.fromString(record.get("userId").toString()))
+                        .amount(amount)
+                        .reason(record.get("reason").toString())
+                        .build());
+            } catch (Exception e) {
+                log.warn("Skipping malformed credit event {}: {}", record, e.getMessage());
+            }
+        }
+        if (awards.isEmpty()) {
+            return;
+        }
+        int recorded = userProfileService.recordCreditAwards(awards);
+        log.debug("Recorded {} of {} credit events", recorded, records.size());
+    }
+}
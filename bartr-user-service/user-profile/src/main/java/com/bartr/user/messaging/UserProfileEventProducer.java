@@ -0,0 +1,39 @@
+package com.bartr.user.messaging;
+
+import com.bartr.user.avro.UserProfileChanged;
+import com.bartr.user.avro.UserProfileDeleted;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@AllArgsConstructor
+public class UserProfileEventProducer {
+
+    public static final String USER_PROFILE_CHANGED_TOPIC = "user_profile_changed_topic";
+    public static final String USER_PROFILE_DELETED_TOPIC = "user_profile_deleted_topic";
+
+    private final KafkaTemplate<String, UserProfileChanged> changedKafkaTemplate;
+    private final KafkaTemplate<String, UserProfileDeleted> deletedKafkaTemplate;
+
+    // Keyed by keycloakId so every event for one user lands on the same partition, in order
+    public void sendChanged(UserProfileChanged event) {
+        changedKafkaTemplate.send(USER_PROFILE_CHANGED_TOPIC, event.getKeycloakId().toString(), event)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("Failed to publish profile change for user {}: {}", event.getKeycloakId(), ex.getMessage());
+                    }
+                });
+    }
+
+    public void sendDeleted(UserProfileDeleted event) {
+        deletedKafkaTemplate.send(USER_PROFILE_DELETED_TOPIC, event.getKeycloakId().toString(), event)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("Failed to publish profile deletion for user {}: {}", event.getKeycloakId(), ex.getMessage());
+                    }
+                });
+    }
+}